@@ -3,6 +3,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -10,7 +11,9 @@ import java.util.stream.Collectors;
 
 /**
  * An accessibility estimator that performs calculations based on the natural-language
- * frequencies of the words in the solution set.
+ * frequencies of the words in the solution set. The accessibility of a puzzle is the sum of a
+ * {@linkplain #wordWeight(String) per-word weight} over its solutions, so it can also be
+ * maintained as a bucket aggregate by a {@link PuzzleMaster}.
  */
 abstract class AbstractFrequencyAccessibilityEstimator implements AccessibilityEstimator {
 
@@ -92,4 +95,18 @@ abstract class AbstractFrequencyAccessibilityEstimator implements AccessibilityE
         return raw == 0 ? minimumNonzeroFrequency : raw;
     }
 
+    /**
+     * Compute the contribution of a single solution word to a puzzle's accessibility.
+     *
+     * @param word
+     *         a solution word
+     * @return a non-negative weight for the word
+     */
+    abstract double wordWeight(String word);
+
+    @Override
+    public double accessibility(Puzzle puzzle, Collection<String> solutions) {
+        return solutions.stream().mapToDouble(this::wordWeight).sum();
+    }
+
 }
@@ -0,0 +1,88 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A {@link PuzzleWriter} that writes characters to a {@link Writer}, with helpers to write
+ * character vectors and integers without creating intermediate strings.
+ */
+abstract class AbstractPuzzleWriter implements PuzzleWriter {
+
+    /**
+     * The stream to which output is written.
+     */
+    protected final Writer out;
+
+    /**
+     * Scratch space for {@link #writeInt(int)}; large enough for any {@code int}.
+     */
+    private final char[] digits = new char[11];
+
+    protected AbstractPuzzleWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Write the letters of a {@linkplain Puzzle character vector} in alphabetical order.
+     *
+     * @param vector
+     *         the character vector to write
+     * @param base
+     *         the character for the first letter of the alphabet: {@code 'a'} or {@code 'A'}
+     * @param separator
+     *         a character to write between consecutive letters, or {@code 0} for none
+     * @throws IOException
+     *         if thrown by the underlying stream
+     */
+    protected final void writeLetters(int vector, char base, char separator) throws IOException {
+        boolean first = true;
+        while (vector != 0) {
+            if (!first && separator != 0) {
+                out.write(separator);
+            }
+            first = false;
+            out.write(base + Integer.numberOfTrailingZeros(vector));
+            vector &= vector - 1;
+        }
+    }
+
+    /**
+     * Write the decimal representation of an integer.
+     *
+     * @param value
+     *         the integer to write
+     * @throws IOException
+     *         if thrown by the underlying stream
+     */
+    protected final void writeInt(int value) throws IOException {
+        int i = digits.length;
+        // Work with non-positive values so that Integer.MIN_VALUE needs no special case.
+        int remaining = value < 0 ? value : -value;
+        do {
+            digits[--i] = (char) ('0' - remaining % 10);
+            remaining /= 10;
+        } while (remaining != 0);
+        if (value < 0) {
+            digits[--i] = '-';
+        }
+        out.write(digits, i, digits.length - i);
+    }
+
+    /**
+     * Write any trailer for the document. The default implementation writes nothing.
+     *
+     * @throws IOException
+     *         if thrown by the underlying stream
+     */
+    protected void writeTrailer() throws IOException {
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writeTrailer();
+        } finally {
+            out.close();
+        }
+    }
+
+}
@@ -1,4 +1,3 @@
-import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -23,7 +22,7 @@ final class AdditiveFrequencyAccessibilityEstimator
     }
 
     @Override
-    public double accessibility(Puzzle puzzle, Collection<String> solutions) {
-        return solutions.stream().mapToDouble(this::wordFrequency).sum();
+    double wordWeight(String word) {
+        return wordFrequency(word);
     }
 }
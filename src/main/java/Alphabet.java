@@ -0,0 +1,233 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * A set of letters from which puzzle words are formed, with each letter assigned a bit index so
+ * that a set of letters can be represented as a bit vector. An alphabet has at most
+ * {@value #MAXIMUM_SIZE} letters, so its vectors fit in a {@code long}; alphabets of at most
+ * {@value #MAXIMUM_INT_SIZE} letters, such as {@link #ENGLISH}, also have {@code int} vectors.
+ * </p>
+ * <p>
+ * {@link Puzzle} and {@link PuzzleMaster} do not take an alphabet: they always use the English
+ * alphabet's {@code int} vectors. Words in any other alphabet, even one whose vectors fit in an
+ * {@code int} such as {@link #SPANISH} or {@link #GERMAN}, are handled only by {@link
+ * WidePuzzleMaster}. {@link PuzzleSolver} solves a single puzzle in any alphabet, and {@link
+ * AlphabetBenchmark} times the two implementations against each other.
+ * </p>
+ * <p>
+ * Letters are Unicode code points, matched exactly: words should be normalized (for instance, to
+ * lowercase in Unicode normalization form C) before their vectors are computed. The English
+ * alphabet assigns bit {@code i} to {@code 'a' + i}, so its vectors agree with
+ * {@link Puzzle#characterVector(char[])}.
+ * </p>
+ * <p>
+ * Alphabets are immutable.
+ * </p>
+ */
+final class Alphabet {
+
+    /**
+     * The largest number of letters in an alphabet: the width of a {@code long}.
+     */
+    static final int MAXIMUM_SIZE = Long.SIZE;
+
+    /**
+     * The largest number of letters in an alphabet whose vectors fit in an {@code int}.
+     */
+    static final int MAXIMUM_INT_SIZE = Integer.SIZE;
+
+    /**
+     * The 26 lowercase letters of the Latin alphabet.
+     */
+    static final Alphabet ENGLISH = of("english", "abcdefghijklmnopqrstuvwxyz");
+
+    /**
+     * The Latin alphabet with {@code ñ}, for 27 letters.
+     */
+    static final Alphabet SPANISH = of("spanish", "abcdefghijklmnñopqrstuvwxyz");
+
+    /**
+     * The Latin alphabet with umlauts and eszett, for 30 letters.
+     */
+    static final Alphabet GERMAN = of("german", "abcdefghijklmnopqrstuvwxyzäöüß");
+
+    /**
+     * The 32-letter Polish alphabet together with {@code q}, {@code v}, and {@code x}, which
+     * appear in loanwords, for 35 letters. Its vectors do not fit in an {@code int}.
+     */
+    static final Alphabet POLISH = of("polish", "aąbcćdeęfghijklłmnńoóprsśtuwyzźżqvx");
+
+    /**
+     * The code points below which letters are looked up in an array rather than a map. This
+     * covers Latin-1 and Latin Extended-A, which includes all the predefined alphabets.
+     */
+    private static final int TABLE_SIZE = 0x180;
+
+    final String name;
+    private final int[] letters;
+    private final byte[] table;
+    private final Map<Integer, Integer> others;
+
+    private Alphabet(String name, int[] letters) {
+        this.name = name;
+        this.letters = letters;
+        this.table = new byte[TABLE_SIZE];
+        Arrays.fill(table, (byte) -1);
+        this.others = new HashMap<>();
+        for (int i = 0; i < letters.length; i++) {
+            if (letters[i] < TABLE_SIZE) {
+                table[letters[i]] = (byte) i;
+            } else {
+                others.put(letters[i], i);
+            }
+        }
+    }
+
+    /**
+     * Create an alphabet.
+     *
+     * @param name
+     *         a name for the alphabet, used only for display
+     * @param letters
+     *         the letters of the alphabet, in order of bit index
+     * @return the alphabet
+     * @throws IllegalArgumentException
+     *         if there are no letters, too many letters, or a repeated letter
+     */
+    static Alphabet of(String name, String letters) {
+        final int[] codePoints = letters.codePoints().toArray();
+        if (codePoints.length == 0 || codePoints.length > MAXIMUM_SIZE) {
+            throw new IllegalArgumentException(String.format(
+                    "Alphabet must have 1 to %s letters, not %s",
+                    MAXIMUM_SIZE, codePoints.length));
+        }
+        if (Arrays.stream(codePoints).distinct().count() != codePoints.length) {
+            throw new IllegalArgumentException("Repeated letter in alphabet: " + letters);
+        }
+        return new Alphabet(name, codePoints);
+    }
+
+    /**
+     * Look up one of the predefined alphabets by name.
+     *
+     * @param name
+     *         the name of the alphabet, such as {@code "english"}
+     * @return the alphabet
+     * @throws IllegalArgumentException
+     *         if there is no such alphabet
+     */
+    static Alphabet named(String name) {
+        for (Alphabet alphabet : Arrays.asList(ENGLISH, SPANISH, GERMAN, POLISH)) {
+            if (alphabet.name.equals(name)) {
+                return alphabet;
+            }
+        }
+        throw new IllegalArgumentException("Unknown alphabet: " + name);
+    }
+
+    /**
+     * @return the number of letters in the alphabet
+     */
+    int size() {
+        return letters.length;
+    }
+
+    /**
+     * @return whether this alphabet's vectors fit in an {@code int}, so that {@link
+     * #intVector(CharSequence)} may be used
+     */
+    boolean fitsInt() {
+        return letters.length <= MAXIMUM_INT_SIZE;
+    }
+
+    /**
+     * Find the bit index of a letter.
+     *
+     * @param codePoint
+     *         an arbitrary code point
+     * @return the letter's bit index, or {@code -1} if it is not in the alphabet
+     */
+    int indexOf(int codePoint) {
+        if (codePoint >= 0 && codePoint < TABLE_SIZE) {
+            return table[codePoint];
+        }
+        return others.getOrDefault(codePoint, -1);
+    }
+
+    /**
+     * Get the letter with a given bit index.
+     *
+     * @param index
+     *         a bit index, less than {@link #size()}
+     * @return the letter's code point
+     */
+    int letter(int index) {
+        return letters[index];
+    }
+
+    /**
+     * Compute the vector of the set of letters in a word. Since no valid puzzle word is empty,
+     * the empty vector also signals a word that is not in the alphabet.
+     *
+     * @param word
+     *         an arbitrary character sequence
+     * @return the word's vector, or {@code 0} if the word is empty or contains a code point
+     * outside the alphabet
+     */
+    long vector(CharSequence word) {
+        long result = 0;
+        for (int i = 0; i < word.length(); ) {
+            final int codePoint = Character.codePointAt(word, i);
+            final int index = indexOf(codePoint);
+            if (index < 0) {
+                return 0;
+            }
+            result |= 1L << index;
+            i += Character.charCount(codePoint);
+        }
+        return result;
+    }
+
+    /**
+     * Compute the vector of the set of letters in a word, for an alphabet whose vectors
+     * {@linkplain #fitsInt() fit in an int}. This is the same as {@link #vector(CharSequence)},
+     * but narrower.
+     *
+     * @param word
+     *         an arbitrary character sequence
+     * @return the word's vector, or {@code 0} if the word is empty or contains a code point
+     * outside the alphabet
+     * @throws IllegalStateException
+     *         if the alphabet's vectors do not fit in an {@code int}
+     */
+    int intVector(CharSequence word) {
+        if (!fitsInt()) {
+            throw new IllegalStateException(name + " alphabet has " + size() + " letters");
+        }
+        return (int) vector(word);
+    }
+
+    /**
+     * Convert a vector to the string of its letters, in order of bit index.
+     *
+     * @param vector
+     *         a vector of this alphabet
+     * @return the letters in the vector
+     */
+    String unvector(long vector) {
+        final StringBuilder sb = new StringBuilder();
+        while (vector != 0) {
+            sb.appendCodePoint(letters[Long.numberOfTrailingZeros(vector)]);
+            vector &= vector - 1;
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "Alphabet{" + name + ", " + size() + " letters}";
+    }
+
+}
@@ -0,0 +1,99 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * Entry point to time scoring every puzzle with {@link WidePuzzleMaster}'s {@code long} vectors
+ * and, when the alphabet is {@link Alphabet#ENGLISH}, with {@link PuzzleMaster}'s {@code int}
+ * vectors as well, checking that the two agree. The alphabet defaults to English and may be any
+ * of the names accepted by {@link Alphabet#named(String)}.
+ * </p>
+ * <p>
+ * Each phase is run several times and the fastest run is reported, in milliseconds, as one
+ * tab-separated {@code key=value} line per path.
+ * </p>
+ */
+final class AlphabetBenchmark {
+
+    /**
+     * How many times each phase is run.
+     */
+    static final int ROUNDS = 5;
+
+    static void printUsage() {
+        final List<String> args = Arrays.asList(
+                AlphabetBenchmark.class.getName(),
+                "<words_file>",
+                "[<english|spanish|german|polish>]");
+        System.out.println("Usage: java " + args.stream().collect(Collectors.joining(" ")));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1 || args.length > 2) {
+            printUsage();
+            System.exit(1);
+        }
+        final Alphabet alphabet =
+                args.length > 1 ? Alphabet.named(args[1]) : Alphabet.ENGLISH;
+
+        System.out.println("Reading dictionary...");
+        final List<String> words = Files.readAllLines(Paths.get(args[0]));
+
+        System.out.println("Timing " + alphabet + "...");
+        final long[] wideNanos = new long[2];
+        final WidePuzzleMaster wpm =
+                time(() -> new WidePuzzleMaster(words, alphabet), wideNanos, 0);
+        final int[] wideScores = time(wpm::scores, wideNanos, 1);
+        report("long", wpm.potCount(), wideScores, wideNanos);
+
+        if (alphabet == Alphabet.ENGLISH) {
+            final long[] narrowNanos = new long[2];
+            final PuzzleMaster pm = time(() -> new PuzzleMaster(words), narrowNanos, 0);
+            final int[] narrowScores = time(pm::scoresByPackedIndex, narrowNanos, 1);
+            report("int", pm.pots.size(), narrowScores, narrowNanos);
+            if (!Arrays.equals(wideScores, narrowScores)) {
+                System.err.println("Scores disagree between int and long vectors");
+                System.exit(1);
+            }
+            System.out.println("Scores agree.");
+        }
+    }
+
+    /**
+     * Run a computation {@link #ROUNDS} times, recording the fastest run.
+     *
+     * @param computation
+     *         the computation to run
+     * @param nanos
+     *         the array into which to record the fastest run, in nanoseconds
+     * @param index
+     *         the index in {@code nanos} at which to record it
+     * @return the result of the last run
+     */
+    private static <T> T time(Supplier<T> computation, long[] nanos, int index) {
+        T result = null;
+        nanos[index] = Long.MAX_VALUE;
+        for (int i = 0; i < ROUNDS; i++) {
+            final long start = System.nanoTime();
+            result = computation.get();
+            nanos[index] = Math.min(nanos[index], System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    private static void report(String width, int potCount, int[] scores, long[] nanos) {
+        System.out.println(String.join("\t",
+                "vectors=" + width,
+                "pots=" + potCount,
+                "puzzles=" + scores.length,
+                "proof=" + Arrays.hashCode(scores),
+                "build_ms=" + nanos[0] / 1_000_000,
+                "score_ms=" + nanos[1] / 1_000_000));
+    }
+
+}
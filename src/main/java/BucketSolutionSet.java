@@ -0,0 +1,144 @@
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>
+ * An immutable view of the solutions to a puzzle, backed directly by the {@link PuzzleMaster}'s
+ * buckets of words. Since every word lies in exactly one bucket, the solutions are the disjoint
+ * union of the (at most 64) buckets whose character vectors the puzzle admits, and no copying or
+ * de-duplication is needed to present them as a set.
+ * </p>
+ * <p>
+ * Creating a view records only the indices of the matching buckets. The size is the sum of the
+ * bucket sizes; membership is tested by computing the candidate's character vector, checking
+ * that its bucket is one of the puzzle's, and searching that bucket alone; and iteration walks
+ * the buckets in increasing order of character vector, which is increasing order of word ID,
+ * yielding the dictionary's own strings. Because every word in a bucket has the same letters,
+ * the {@linkplain #score() score} is also computed per bucket.
+ * </p>
+ * <p>
+ * A view may also cover an arbitrary set of buckets; a {@linkplain PuzzleMaster#compact
+ * compact} {@code PuzzleMaster} presents its word set and each of its buckets this way.
+ * </p>
+ */
+final class BucketSolutionSet extends AbstractSet<String> {
+
+    private final PuzzleMaster pm;
+
+    /**
+     * The indices of the puzzle's buckets, in increasing order.
+     */
+    private final int[] bucketIndices;
+
+    private final int size;
+
+    /**
+     * Create a view of the solutions to a puzzle.
+     *
+     * @param pm
+     *         the {@code PuzzleMaster} whose words to view
+     * @param puzzle
+     *         a valid {@link Puzzle} instance
+     */
+    BucketSolutionSet(PuzzleMaster pm, Puzzle puzzle) {
+        this(pm, bucketIndicesFor(pm, puzzle));
+    }
+
+    /**
+     * Create a view of the words in the given buckets.
+     *
+     * @param pm
+     *         the {@code PuzzleMaster} whose words to view
+     * @param bucketIndices
+     *         distinct bucket indices of {@code pm}, in increasing order; the array is not copied
+     */
+    BucketSolutionSet(PuzzleMaster pm, int[] bucketIndices) {
+        this.pm = pm;
+        this.bucketIndices = bucketIndices;
+        int wordCount = 0;
+        for (int index : bucketIndices) {
+            wordCount += pm.bucketStart(index + 1) - pm.bucketStart(index);
+        }
+        this.size = wordCount;
+    }
+
+    private static int[] bucketIndicesFor(PuzzleMaster pm, Puzzle puzzle) {
+        final int optionalVector = puzzle.potVector & ~puzzle.requiredVector;
+        final int[] indices = new int[1 << Integer.bitCount(optionalVector)];
+        final int count = pm.bucketIndicesFor(puzzle.requiredVector, optionalVector, indices);
+        final int[] result = Arrays.copyOf(indices, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Compute the {@linkplain Puzzle#score(java.util.Collection) score} of the solutions, from
+     * the size and character vector of each bucket rather than from each word.
+     *
+     * @return the total score of the solutions
+     */
+    int score() {
+        int score = 0;
+        for (int index : bucketIndices) {
+            final int wordCount = pm.bucketStart(index + 1) - pm.bucketStart(index);
+            score += Integer.bitCount(pm.bucketVector(index)) >= Puzzle.POT_SIZE ?
+                    Puzzle.BINGO_SCORE * wordCount : wordCount;
+        }
+        return score;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (!(o instanceof String)) {
+            return false;
+        }
+        final String word = (String) o;
+        for (int i = 0; i < word.length(); i++) {
+            if (word.charAt(i) < 'a' || word.charAt(i) > 'z') {
+                return false;
+            }
+        }
+        final int vector = Puzzle.characterVector(word.toCharArray());
+        final int index = pm.bucketIndex(vector);
+        if (index < 0 || Arrays.binarySearch(bucketIndices, index) < 0) {
+            return false;
+        }
+        return pm.findWord(vector, word) >= 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int bucket = 0;
+            private int nextId = bucketIndices.length > 0 ? pm.bucketStart(bucketIndices[0]) : 0;
+
+            @Override
+            public boolean hasNext() {
+                while (bucket < bucketIndices.length
+                        && nextId >= pm.bucketStart(bucketIndices[bucket] + 1)) {
+                    bucket++;
+                    if (bucket < bucketIndices.length) {
+                        nextId = pm.bucketStart(bucketIndices[bucket]);
+                    }
+                }
+                return bucket < bucketIndices.length;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return pm.word(nextId++);
+            }
+        };
+    }
+
+}
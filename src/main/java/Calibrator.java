@@ -42,7 +42,8 @@ final class Calibrator {
         System.out.println("Reading and solving puzzles...");
         final List<PuzzleDatum> puzzleData = PuzzleDatum.createDataset(
                 Files.newInputStream(Paths.get(puzzlesFilename)),
-                pm::solutionsTo);
+                pm::compactSolutionsTo,
+                true);
 
         final Map<String, AccessibilityEstimator> estimators = new LinkedHashMap<>();
         estimators.put("solution_count", new SolutionCountAccessibilityEstimator());
@@ -0,0 +1,303 @@
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * Relative word frequencies computed from local plain-text corpora, as a replacement for the
+ * {@code wordFrequencies.m} script in {@code data/frequencies}.
+ * </p>
+ * <p>
+ * A corpus is read as a sequence of tokens: maximal runs of ASCII letters and non-ASCII bytes.
+ * ASCII letters are lowercased, and tokens with non-ASCII bytes (such as {@code café}) are never
+ * dictionary words, so in practice this splits on whitespace, punctuation, and digits; for
+ * instance, {@code waste's} is a use of {@code waste}. The frequency of a word is the number of
+ * its occurrences divided by the total number of tokens.
+ * </p>
+ * <p>
+ * Only words in the vocabulary are counted: typically, the {@linkplain PuzzleMaster#words words}
+ * that {@link PuzzleMaster} accepts from a word list. Corpus files are memory-mapped and split
+ * into chunks of {@value #CHUNK_BYTES} bytes, which are tokenized in parallel. Tokens are looked
+ * up in a hash table without allocating, and each worker accumulates counts in its own {@code
+ * long} array indexed by word ID; the arrays are summed at the end.
+ * </p>
+ */
+final class CorpusFrequencies {
+
+    /**
+     * The default number of bytes of corpus in each parallel chunk.
+     */
+    static final int CHUNK_BYTES = 1 << 24;
+
+    /**
+     * The length of the longest token that is looked up. Longer tokens are counted toward the
+     * total but are never dictionary words.
+     */
+    static final int MAXIMUM_TOKEN_LENGTH = 64;
+
+    /**
+     * The words whose frequencies were counted.
+     */
+    final PuzzleMaster vocabulary;
+
+    /**
+     * The number of occurrences of each word, indexed by {@linkplain PuzzleMaster#word(int) word
+     * ID} in the {@link #vocabulary}.
+     */
+    private final long[] counts;
+
+    /**
+     * The total number of tokens in the corpora, whether or not they are in the vocabulary.
+     */
+    final long tokenCount;
+
+    private CorpusFrequencies(PuzzleMaster vocabulary, long[] counts, long tokenCount) {
+        this.vocabulary = vocabulary;
+        this.counts = counts;
+        this.tokenCount = tokenCount;
+    }
+
+    static void printUsage() {
+        final List<String> args = Arrays.asList(
+                CorpusFrequencies.class.getName(),
+                "<words_file>",
+                "<output_file>",
+                "<corpus_file>...");
+        System.out.println("Usage: java " + args.stream().collect(Collectors.joining(" ")));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            printUsage();
+            System.exit(1);
+        }
+        final Path wordsFile = Paths.get(args[0]);
+        final Path outputFile = Paths.get(args[1]);
+        final List<Path> corpora = Arrays.stream(args, 2, args.length)
+                .map(Paths::get)
+                .collect(Collectors.toList());
+
+        System.out.println("Reading dictionary...");
+        final PuzzleMaster vocabulary = new PuzzleMaster(Files.readAllLines(wordsFile));
+
+        System.out.println("Counting words...");
+        final CorpusFrequencies frequencies = count(vocabulary, corpora, CHUNK_BYTES);
+        System.out.println("Token count: " + frequencies.tokenCount);
+
+        System.out.println("Writing frequencies...");
+        frequencies.writeTo(outputFile);
+        System.out.println("Done.");
+    }
+
+    /**
+     * Count the vocabulary's words in the given corpora.
+     *
+     * @param vocabulary
+     *         the words to count
+     * @param corpora
+     *         plain-text files, in ASCII or UTF-8
+     * @param chunkBytes
+     *         the number of bytes in each parallel chunk; {@link #CHUNK_BYTES} is a good default
+     * @return the word counts
+     * @throws IOException
+     *         if a corpus cannot be read
+     */
+    static CorpusFrequencies count(PuzzleMaster vocabulary, List<Path> corpora, int chunkBytes)
+            throws IOException {
+        final List<Path> chunkPaths = new ArrayList<>();
+        final List<Long> chunkStarts = new ArrayList<>();
+        final List<Long> chunkEnds = new ArrayList<>();
+        for (final Path corpus : corpora) {
+            final long size = Files.size(corpus);
+            for (long start = 0; start < size; start += chunkBytes) {
+                chunkPaths.add(corpus);
+                chunkStarts.add(start);
+                chunkEnds.add(Math.min(size, start + chunkBytes));
+            }
+        }
+        final HashIndex index = new HashIndex(vocabulary);
+        // The final entry of each table is the token count.
+        final long[] table;
+        try {
+            table = IntStream.range(0, chunkPaths.size()).parallel().collect(
+                    () -> new long[vocabulary.words.size() + 1],
+                    (counts, i) -> countChunk(index, chunkPaths.get(i),
+                            chunkStarts.get(i), chunkEnds.get(i), counts),
+                    (left, right) -> {
+                        for (int i = 0; i < left.length; i++) {
+                            left[i] += right[i];
+                        }
+                    });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        return new CorpusFrequencies(
+                vocabulary, Arrays.copyOf(table, vocabulary.words.size()), table[table.length - 1]);
+    }
+
+    /**
+     * Count the tokens that start within one chunk of a corpus, including a token that extends
+     * past the end of the chunk.
+     *
+     * @param counts
+     *         the table to which to add counts, with the token count as its final entry
+     */
+    private static void countChunk(
+            HashIndex index, Path corpus, long start, long end, long[] counts) {
+        final MappedByteBuffer buffer;
+        final long mapStart = Math.max(0, start - 1);
+        try (FileChannel channel = FileChannel.open(corpus, StandardOpenOption.READ)) {
+            final long mapEnd = Math.min(channel.size(), end + MAXIMUM_TOKEN_LENGTH + 1);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, mapStart, mapEnd - mapStart);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final char[] token = new char[MAXIMUM_TOKEN_LENGTH];
+        final int limit = (int) (end - mapStart);
+        int position = (int) (start - mapStart);
+        // A token running into the chunk belongs to the previous chunk.
+        if (position > 0 && isTokenByte(buffer.get(position - 1))) {
+            while (position < limit && isTokenByte(buffer.get(position))) {
+                position++;
+            }
+        }
+        while (position < limit) {
+            if (!isTokenByte(buffer.get(position))) {
+                position++;
+                continue;
+            }
+            int length = 0;
+            int hash = 0;
+            boolean ascii = true;
+            while (position < buffer.limit() && isTokenByte(buffer.get(position))) {
+                final byte b = buffer.get(position++);
+                if (b < 0) {
+                    ascii = false;
+                } else if (length < token.length) {
+                    token[length] = (char) (b | 0x20);  // lowercase
+                    hash = 31 * hash + token[length];
+                }
+                length++;
+            }
+            counts[counts.length - 1]++;
+            if (ascii && length <= token.length) {
+                final int id = index.idOf(token, length, hash);
+                if (id >= 0) {
+                    counts[id]++;
+                }
+            }
+        }
+    }
+
+    private static boolean isTokenByte(byte b) {
+        return b < 0 || (b >= 'a' && b <= 'z') || (b >= 'A' && b <= 'Z');
+    }
+
+    /**
+     * Get the number of occurrences of a word.
+     *
+     * @param id
+     *         a word ID in the {@link #vocabulary}
+     * @return the number of occurrences
+     */
+    long count(int id) {
+        return counts[id];
+    }
+
+    /**
+     * Get the relative frequency of a word.
+     *
+     * @param id
+     *         a word ID in the {@link #vocabulary}
+     * @return the number of occurrences divided by the {@link #tokenCount}, or zero if the
+     * corpora were empty
+     */
+    double frequency(int id) {
+        return tokenCount == 0 ? 0 : (double) counts[id] / tokenCount;
+    }
+
+    /**
+     * Write the frequencies of all words in the vocabulary, in lexicographic order, in the format
+     * read by {@link AbstractFrequencyAccessibilityEstimator#parseFrequencies}. Words that never
+     * occur are written with frequency zero.
+     *
+     * @param path
+     *         the file to write
+     * @throws IOException
+     *         if the file cannot be written
+     */
+    void writeTo(Path path) throws IOException {
+        final Integer[] ids = IntStream.range(0, vocabulary.words.size()).boxed()
+                .sorted(Comparator.comparing(vocabulary::word))
+                .toArray(Integer[]::new);
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writer.write("# " + tokenCount + " tokens\n");
+            for (final int id : ids) {
+                writer.write(vocabulary.word(id));
+                writer.write(',');
+                writer.write(Double.toString(frequency(id)));
+                writer.write('\n');
+            }
+        }
+    }
+
+    /**
+     * An open-addressing hash table from the words of a vocabulary to their IDs, for looking up
+     * tokens held in a {@code char} array. A token's hash is {@link String#hashCode()} of its
+     * letters, which the tokenizer computes as it goes.
+     */
+    private static final class HashIndex {
+        private final String[] words;
+        private final int[] slots;
+
+        HashIndex(PuzzleMaster vocabulary) {
+            words = new String[vocabulary.words.size()];
+            slots = new int[Integer.highestOneBit(Math.max(1, words.length)) * 4];
+            Arrays.fill(slots, -1);
+            for (int id = 0; id < words.length; id++) {
+                words[id] = vocabulary.word(id);
+                int slot = words[id].hashCode() & (slots.length - 1);
+                while (slots[slot] >= 0) {
+                    slot = (slot + 1) & (slots.length - 1);
+                }
+                slots[slot] = id;
+            }
+        }
+
+        /**
+         * @return the ID of the word spelled by the first {@code length} characters of {@code
+         * chars}, or {@code -1} if there is none
+         */
+        int idOf(char[] chars, int length, int hash) {
+            int slot = hash & (slots.length - 1);
+            while (slots[slot] >= 0) {
+                final String word = words[slots[slot]];
+                if (word.hashCode() == hash && word.length() == length) {
+                    int i = 0;
+                    while (i < length && word.charAt(i) == chars[i]) {
+                        i++;
+                    }
+                    if (i == length) {
+                        return slots[slot];
+                    }
+                }
+                slot = (slot + 1) & (slots.length - 1);
+            }
+            return -1;
+        }
+    }
+
+}
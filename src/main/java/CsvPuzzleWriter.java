@@ -0,0 +1,41 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A {@link PuzzleWriter} that emits one CSV row per puzzle, in the same format that
+ * {@link PuzzleDatum#createDataset} reads: required letter, optional letters, and the "good",
+ * "excellent", and "genius" thresholds. Page boundaries are not recorded.
+ */
+final class CsvPuzzleWriter extends AbstractPuzzleWriter {
+
+    /**
+     * Create a writer and write a comment line naming the columns.
+     *
+     * @param out
+     *         the stream to which to write
+     * @throws IOException
+     *         if thrown while writing the header
+     */
+    CsvPuzzleWriter(Writer out) throws IOException {
+        super(out);
+        out.write("# required,optional,good,excellent,genius\n");
+    }
+
+    @Override
+    public void writePage(PuzzleDatum... puzzles) throws IOException {
+        for (PuzzleDatum datum : puzzles) {
+            final int required = datum.puzzle.requiredVector;
+            writeLetters(required, 'a', (char) 0);
+            out.write(',');
+            writeLetters(datum.puzzle.potVector & ~required, 'a', (char) 0);
+            out.write(',');
+            writeInt(datum.good);
+            out.write(',');
+            writeInt(datum.excellent);
+            out.write(',');
+            writeInt(datum.genius);
+            out.write('\n');
+        }
+    }
+
+}
@@ -0,0 +1,278 @@
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * <p>
+ * The effect on the puzzle space of replacing one word list with another: which puzzles are
+ * added, which are removed, and which change in score.
+ * </p>
+ * <p>
+ * Rather than solving every puzzle under both word lists, the diff compares the two
+ * {@link PuzzleMaster}s bucket by bucket to find the character vectors whose words differ. A
+ * puzzle can change only if one of these vectors is a subvector of its pot, so only such pots are
+ * re-scored. For each changed vector, the pots containing it are found by enumerating its
+ * supersets of size {@link Puzzle#POT_SIZE}, or by scanning the known pots if there are fewer of
+ * those. Thus the cost is proportional to the number of buckets plus the size of the diff, not to
+ * the number of puzzles.
+ * </p>
+ */
+final class DictionaryDiff {
+
+    /**
+     * The score recorded for a puzzle that does not exist under one of the word lists.
+     */
+    static final int ABSENT = -1;
+
+    /**
+     * A puzzle that was added, removed, or changed in score.
+     */
+    static final class PuzzleChange {
+
+        final Puzzle puzzle;
+
+        /**
+         * The puzzle's score under the old word list, or {@link #ABSENT}.
+         */
+        final int scoreBefore;
+
+        /**
+         * The puzzle's score under the new word list, or {@link #ABSENT}.
+         */
+        final int scoreAfter;
+
+        PuzzleChange(Puzzle puzzle, int scoreBefore, int scoreAfter) {
+            this.puzzle = puzzle;
+            this.scoreBefore = scoreBefore;
+            this.scoreAfter = scoreAfter;
+        }
+
+        boolean isAddition() {
+            return scoreBefore == ABSENT;
+        }
+
+        boolean isRemoval() {
+            return scoreAfter == ABSENT;
+        }
+
+        @Override
+        public String toString() {
+            final String letters = Puzzle.characterUnvector(puzzle.requiredVector) + " "
+                    + Puzzle.characterUnvector(puzzle.potVector & ~puzzle.requiredVector);
+            if (isAddition()) {
+                return String.format("+ %s (%s)", letters, scoreAfter);
+            } else if (isRemoval()) {
+                return String.format("- %s (%s)", letters, scoreBefore);
+            } else {
+                return String.format("~ %s (%s -> %s)", letters, scoreBefore, scoreAfter);
+            }
+        }
+
+    }
+
+    /**
+     * The character vectors whose buckets differ between the two word lists, in increasing
+     * order.
+     */
+    final int[] changedVectors;
+
+    /**
+     * The number of pots re-scored because they contain a changed vector.
+     */
+    final int affectedPotCount;
+
+    /**
+     * All puzzles that were added, removed, or changed in score, ordered by pot vector and then
+     * by required vector.
+     */
+    final List<PuzzleChange> changes;
+
+    private DictionaryDiff(int[] changedVectors, int affectedPotCount, List<PuzzleChange> changes) {
+        this.changedVectors = changedVectors;
+        this.affectedPotCount = affectedPotCount;
+        this.changes = Collections.unmodifiableList(changes);
+    }
+
+    static void printUsage() {
+        final List<String> args = Arrays.asList(
+                DictionaryDiff.class.getName(),
+                "<old_words_file>",
+                "<new_words_file>");
+        System.out.println("Usage: java " + args.stream().collect(Collectors.joining(" ")));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            printUsage();
+            System.exit(1);
+        }
+
+        System.out.println("Reading dictionaries...");
+        final List<String> oldWords = Files.readAllLines(Paths.get(args[0]));
+        final List<String> newWords = Files.readAllLines(Paths.get(args[1]));
+
+        System.out.println("Compiling generic puzzle data...");
+        // Both dictionaries stay resident for the whole comparison, which needs only their
+        // buckets, so store their words compactly.
+        final PuzzleMaster before = PuzzleMaster.compact(
+                oldWords, PuzzleConstraints.NONE, Collections.emptyList());
+        final PuzzleMaster after = PuzzleMaster.compact(
+                newWords, PuzzleConstraints.NONE, Collections.emptyList());
+
+        System.out.println("Comparing...");
+        final DictionaryDiff diff = compare(before, after);
+        System.out.println("--- Changed character vectors: " + diff.changedVectors.length);
+        System.out.println("--- Affected pots: " + diff.affectedPotCount);
+        System.out.printf("--- Puzzles added: %s, removed: %s, changed in score: %s%n",
+                diff.changes.stream().filter(PuzzleChange::isAddition).count(),
+                diff.changes.stream().filter(PuzzleChange::isRemoval).count(),
+                diff.changes.stream().filter(c -> !c.isAddition() && !c.isRemoval()).count());
+        diff.changes.forEach(System.out::println);
+    }
+
+    /**
+     * Compute the puzzles that differ between two {@link PuzzleMaster}s. If the two have
+     * different {@linkplain PuzzleMaster#constraints constraints}, puzzles whose words are
+     * unchanged but which only one set of constraints allows are not reported.
+     *
+     * @param before
+     *         the puzzle data for the old word list
+     * @param after
+     *         the puzzle data for the new word list
+     * @return the differences
+     */
+    static DictionaryDiff compare(PuzzleMaster before, PuzzleMaster after) {
+        final int[] changedVectors = changedVectors(before, after);
+
+        final int knownPotCount = before.pots.size() + after.pots.size();
+        final Set<Integer> affectedPots = new HashSet<>();
+        for (int vector : changedVectors) {
+            final int freeLetters = Puzzle.POT_SIZE - Integer.bitCount(vector);
+            if (binomial(26 - Integer.bitCount(vector), freeLetters) < knownPotCount) {
+                addPotSupersets(before, after, vector, 0, freeLetters, affectedPots);
+            } else {
+                for (Set<Integer> pots : Arrays.asList(before.pots, after.pots)) {
+                    for (int pot : pots) {
+                        if ((pot & vector) == vector) {
+                            affectedPots.add(pot);
+                        }
+                    }
+                }
+            }
+        }
+
+        final int[] sortedPots =
+                affectedPots.stream().mapToInt(Integer::intValue).sorted().toArray();
+        final List<PuzzleChange> changes = new ArrayList<>();
+        for (int pot : sortedPots) {
+            final Map<Integer, Integer> scoresBefore = scoresForPot(before, pot);
+            final Map<Integer, Integer> scoresAfter = scoresForPot(after, pot);
+            for (int i = 0; i < 26; i++) {
+                final int required = 1 << i;
+                final int scoreBefore = scoresBefore.getOrDefault(required, ABSENT);
+                final int scoreAfter = scoresAfter.getOrDefault(required, ABSENT);
+                if (scoreBefore != scoreAfter) {
+                    changes.add(new PuzzleChange(
+                            new Puzzle(pot, required), scoreBefore, scoreAfter));
+                }
+            }
+        }
+        return new DictionaryDiff(changedVectors, sortedPots.length, changes);
+    }
+
+    /**
+     * Find the character vectors whose buckets differ, by merging the two sorted bucket lists.
+     */
+    private static int[] changedVectors(PuzzleMaster before, PuzzleMaster after) {
+        final List<Integer> result = new ArrayList<>();
+        int i = 0;
+        int j = 0;
+        while (i < before.bucketCount() || j < after.bucketCount()) {
+            final int vi = i < before.bucketCount() ? before.bucketVector(i) : Integer.MAX_VALUE;
+            final int vj = j < after.bucketCount() ? after.bucketVector(j) : Integer.MAX_VALUE;
+            if (vi < vj) {
+                result.add(vi);
+                i++;
+            } else if (vj < vi) {
+                result.add(vj);
+                j++;
+            } else {
+                if (!sameWords(before, i, after, j)) {
+                    result.add(vi);
+                }
+                i++;
+                j++;
+            }
+        }
+        return result.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static boolean sameWords(PuzzleMaster before, int i, PuzzleMaster after, int j) {
+        final int startBefore = before.bucketStart(i);
+        final int startAfter = after.bucketStart(j);
+        final int size = before.bucketStart(i + 1) - startBefore;
+        if (size != after.bucketStart(j + 1) - startAfter) {
+            return false;
+        }
+        for (int k = 0; k < size; k++) {
+            if (!before.word(startBefore + k).equals(after.word(startAfter + k))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Add to {@code result} every pot under either word list that is formed by adding exactly
+     * {@code freeLetters} letters, each at least {@code 'a' + fromLetter}, to {@code vector}.
+     */
+    private static void addPotSupersets(
+            PuzzleMaster before, PuzzleMaster after,
+            int vector, int fromLetter, int freeLetters, Set<Integer> result) {
+        if (freeLetters == 0) {
+            if (before.pots.contains(vector) || after.pots.contains(vector)) {
+                result.add(vector);
+            }
+            return;
+        }
+        for (int i = fromLetter; i <= 26 - freeLetters; i++) {
+            final int letter = 1 << i;
+            if ((vector & letter) == 0) {
+                addPotSupersets(before, after, vector | letter, i + 1, freeLetters - 1, result);
+            }
+        }
+    }
+
+    /**
+     * Score every puzzle with the given pot, keyed by required vector.
+     */
+    private static Map<Integer, Integer> scoresForPot(PuzzleMaster pm, int pot) {
+        final Map<Integer, Integer> result = new HashMap<>();
+        if (pm.pots.contains(pot)) {
+            final int requiredLetters = pm.constraints.allowedRequiredLetters(pot);
+            final SolutionAggregate aggregate = new SolutionAggregate(pm.weights.size());
+            for (Puzzle puzzle : PuzzleMaster.puzzlesForPot(pot, requiredLetters)) {
+                result.put(puzzle.requiredVector, pm.aggregateFor(puzzle, aggregate).score());
+            }
+        }
+        return result;
+    }
+
+    private static long binomial(int n, int k) {
+        long result = 1;
+        for (int i = 0; i < k; i++) {
+            result = result * (n - i) / (i + 1);
+        }
+        return result;
+    }
+
+}
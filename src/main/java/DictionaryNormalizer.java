@@ -0,0 +1,304 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * Rules for cleaning up a raw word list before it is indexed. Word lists such as those in {@code
+ * data/words} contain possessives ({@code waste's}), proper nouns ({@code Athena's}, {@code
+ * Slashdot}), and short words, which {@link PuzzleMaster} would otherwise silently drop; a
+ * normalizer can instead strip possessives, lowercase entries, and so on, and writes the result
+ * as a plain word list, one word per line, that any entry point can read.
+ * </p>
+ * <p>
+ * Each entry is trimmed, then has its possessive handled, then has its case policy applied, and
+ * is then dropped if it is shorter than the minimum length or is on the deny list. Finally,
+ * duplicates may be removed, keeping the first occurrence. Entries are processed in parallel in
+ * batches of {@value #BATCH_SIZE} lines, but the output preserves the order of the input.
+ * </p>
+ * <p>
+ * {@code DictionaryNormalizer}s are immutable; the {@code with*} methods return new instances.
+ * </p>
+ */
+final class DictionaryNormalizer {
+
+    /**
+     * How to treat entries ending in {@code 's} or {@code '}, with either an ASCII apostrophe
+     * or a right single quotation mark.
+     */
+    enum PossessivePolicy {
+        /**
+         * Leave possessives as they are.
+         */
+        KEEP,
+        /**
+         * Remove the possessive suffix, so that {@code waste's} becomes {@code waste}.
+         */
+        STRIP,
+        /**
+         * Drop possessives altogether.
+         */
+        DROP,
+    }
+
+    /**
+     * How to treat entries with uppercase letters.
+     */
+    enum CasePolicy {
+        /**
+         * Leave entries as they are.
+         */
+        KEEP,
+        /**
+         * Convert entries to lowercase, so that {@code Slashdot} becomes {@code slashdot}.
+         */
+        LOWERCASE,
+        /**
+         * Drop entries with any uppercase letter, such as proper nouns and acronyms.
+         */
+        DROP,
+    }
+
+    /**
+     * A normalizer that drops possessives, capitalized entries, and words shorter than {@value
+     * Puzzle#MINIMUM_WORD_LENGTH} letters, and removes duplicates. These are entries that {@link
+     * PuzzleMaster} would drop anyway, so this only makes the word list smaller.
+     */
+    static final DictionaryNormalizer DEFAULT = new DictionaryNormalizer(
+            PossessivePolicy.DROP, CasePolicy.DROP, Collections.emptySet(), true,
+            Puzzle.MINIMUM_WORD_LENGTH);
+
+    /**
+     * The number of entries normalized in parallel before their words are written out.
+     */
+    static final int BATCH_SIZE = 8192;
+
+    final PossessivePolicy possessivePolicy;
+    final CasePolicy casePolicy;
+    final Set<String> denyList;
+    final boolean deduplicate;
+    final int minimumLength;
+
+    private DictionaryNormalizer(
+            PossessivePolicy possessivePolicy,
+            CasePolicy casePolicy,
+            Set<String> denyList,
+            boolean deduplicate,
+            int minimumLength) {
+        this.possessivePolicy = possessivePolicy;
+        this.casePolicy = casePolicy;
+        this.denyList = denyList;
+        this.deduplicate = deduplicate;
+        this.minimumLength = minimumLength;
+    }
+
+    /**
+     * @param policy
+     *         how to treat possessives
+     * @return a normalizer with the given possessive policy
+     */
+    DictionaryNormalizer withPossessivePolicy(PossessivePolicy policy) {
+        return new DictionaryNormalizer(
+                policy, casePolicy, denyList, deduplicate, minimumLength);
+    }
+
+    /**
+     * @param policy
+     *         how to treat entries with uppercase letters
+     * @return a normalizer with the given case policy
+     */
+    DictionaryNormalizer withCasePolicy(CasePolicy policy) {
+        return new DictionaryNormalizer(
+                possessivePolicy, policy, denyList, deduplicate, minimumLength);
+    }
+
+    /**
+     * @param words
+     *         words to drop, compared with entries after all other normalization
+     * @return a normalizer with the given deny list in addition to this one's
+     */
+    DictionaryNormalizer withDenied(Collection<String> words) {
+        final Set<String> newDenyList = new HashSet<>(denyList);
+        newDenyList.addAll(words);
+        return new DictionaryNormalizer(possessivePolicy, casePolicy,
+                Collections.unmodifiableSet(newDenyList), deduplicate, minimumLength);
+    }
+
+    /**
+     * @param deduplicate
+     *         whether to keep only the first occurrence of each word
+     * @return a normalizer with the given deduplication setting
+     */
+    DictionaryNormalizer withDeduplication(boolean deduplicate) {
+        return new DictionaryNormalizer(
+                possessivePolicy, casePolicy, denyList, deduplicate, minimumLength);
+    }
+
+    /**
+     * @param minimumLength
+     *         the number of characters below which entries are dropped
+     * @return a normalizer with the given minimum length
+     */
+    DictionaryNormalizer withMinimumLength(int minimumLength) {
+        return new DictionaryNormalizer(
+                possessivePolicy, casePolicy, denyList, deduplicate, minimumLength);
+    }
+
+    static void printUsage() {
+        final List<String> args = Arrays.asList(
+                DictionaryNormalizer.class.getName(),
+                "<input_file>",
+                "<output_file>",
+                "[--possessives <keep|strip|drop>]",
+                "[--case <keep|lowercase|drop>]",
+                "[--deny <words_file>]",
+                "[--keep-duplicates]",
+                "[--minimum-length <n>]");
+        System.out.println("Usage: java " + args.stream().collect(Collectors.joining(" ")));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            printUsage();
+            System.exit(1);
+        }
+        DictionaryNormalizer normalizer = DEFAULT;
+        for (int i = 2; i < args.length; i++) {
+            final boolean hasValue = i + 1 < args.length;
+            if (args[i].equals("--possessives") && hasValue) {
+                normalizer = normalizer.withPossessivePolicy(
+                        PossessivePolicy.valueOf(args[++i].toUpperCase(Locale.ROOT)));
+            } else if (args[i].equals("--case") && hasValue) {
+                normalizer = normalizer.withCasePolicy(
+                        CasePolicy.valueOf(args[++i].toUpperCase(Locale.ROOT)));
+            } else if (args[i].equals("--deny") && hasValue) {
+                normalizer = normalizer.withDenied(Files.readAllLines(
+                        Paths.get(args[++i]), StandardCharsets.UTF_8));
+            } else if (args[i].equals("--keep-duplicates")) {
+                normalizer = normalizer.withDeduplication(false);
+            } else if (args[i].equals("--minimum-length") && hasValue) {
+                normalizer = normalizer.withMinimumLength(Integer.parseInt(args[++i]));
+            } else {
+                printUsage();
+                System.exit(1);
+            }
+        }
+
+        System.out.println("Normalizing dictionary...");
+        final long count = normalizer.normalize(Paths.get(args[0]), Paths.get(args[1]));
+        System.out.println("Word count: " + count);
+    }
+
+    /**
+     * Normalize a single entry.
+     *
+     * @param entry
+     *         an entry of a raw word list
+     * @return the normalized entry, or {@code null} if it should be dropped; duplicates are not
+     * considered
+     */
+    String normalize(String entry) {
+        String word = entry.trim();
+        if (word.endsWith("'s") || word.endsWith("’s")
+                || word.endsWith("'") || word.endsWith("’")) {
+            switch (possessivePolicy) {
+                case STRIP:
+                    word = word.substring(0, word.length() - (word.endsWith("s") ? 2 : 1));
+                    break;
+                case DROP:
+                    return null;
+                default:
+                    break;
+            }
+        }
+        if (casePolicy != CasePolicy.KEEP && !word.equals(word.toLowerCase(Locale.ROOT))) {
+            if (casePolicy == CasePolicy.DROP) {
+                return null;
+            }
+            word = word.toLowerCase(Locale.ROOT);
+        }
+        if (word.codePointCount(0, word.length()) < Math.max(1, minimumLength)
+                || denyList.contains(word)) {
+            return null;
+        }
+        return word;
+    }
+
+    /**
+     * Normalize a word list, writing one word per line. Entries are read in batches of {@value
+     * #BATCH_SIZE} lines; each batch is normalized in parallel, and its words are then written
+     * in input order, skipping words already written if duplicates are to be removed. So only
+     * one batch and the set of distinct words written so far are held in memory.
+     *
+     * @param in
+     *         the entries of a raw word list, one per line; not closed
+     * @param out
+     *         the destination for the normalized words; not closed or flushed
+     * @return the number of words written
+     * @throws IOException
+     *         if reading or writing fails
+     */
+    long normalize(BufferedReader in, Writer out) throws IOException {
+        final Set<String> written = new HashSet<>();
+        final List<String> batch = new ArrayList<>(BATCH_SIZE);
+        long count = 0;
+        boolean done = false;
+        while (!done) {
+            final String line = in.readLine();
+            if (line == null) {
+                done = true;
+            } else {
+                batch.add(line);
+            }
+            if (batch.size() == BATCH_SIZE || (done && !batch.isEmpty())) {
+                final String[] words = new String[batch.size()];
+                IntStream.range(0, words.length).parallel().forEach(i ->
+                        words[i] = normalize(batch.get(i)));
+                for (String word : words) {
+                    if (word != null && (!deduplicate || written.add(word))) {
+                        out.write(word);
+                        out.write('\n');
+                        count++;
+                    }
+                }
+                batch.clear();
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Normalize a word list file, writing the result as UTF-8 with one word per line, as by
+     * {@link #normalize(BufferedReader, Writer)}.
+     *
+     * @param input
+     *         a raw word list, in UTF-8
+     * @param output
+     *         the file to write
+     * @return the number of words written
+     * @throws IOException
+     *         if a file cannot be read or written
+     */
+    long normalize(Path input, Path output) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(input, StandardCharsets.UTF_8);
+             BufferedWriter writer = Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            return normalize(reader, writer);
+        }
+    }
+
+}
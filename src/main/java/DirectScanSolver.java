@@ -0,0 +1,105 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * <p>
+ * Solves a small batch of puzzles with a single pass over a word list, without building a
+ * {@link PuzzleMaster}.
+ * </p>
+ * <p>
+ * Each line of the word list is read once, its character vector is computed (stopping early at
+ * the first letter outside every puzzle's pot), and the word is added to the solutions of each
+ * puzzle whose pot contains the vector and whose required letters the vector contains. As in
+ * {@link PuzzleMaster}, words with more than {@value Puzzle#POT_SIZE} distinct letters are never
+ * solutions, even to a puzzle whose pot has more letters than that. Only the solutions are
+ * retained, so this allocates nothing in proportion to the dictionary. The work per word grows
+ * with the number of puzzles, so for more than about a hundred puzzles it is faster to build a
+ * {@code PuzzleMaster} once and solve each puzzle against its index.
+ * </p>
+ */
+final class DirectScanSolver {
+
+    private DirectScanSolver() {
+    }
+
+    /**
+     * Solve puzzles against a word list file.
+     *
+     * @param wordsFile
+     *         a word list, with one word per line, in UTF-8
+     * @param puzzles
+     *         the puzzles to solve
+     * @return the solutions to each puzzle, in the same order as {@code puzzles}, agreeing with
+     * {@link PuzzleMaster#solutionsTo(Puzzle)} for a {@code PuzzleMaster} built from the same
+     * word list with no constraints
+     * @throws IOException
+     *         if the word list cannot be read
+     */
+    static List<Set<String>> solve(Path wordsFile, List<Puzzle> puzzles) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(wordsFile, StandardCharsets.UTF_8)) {
+            return solve(reader, puzzles);
+        }
+    }
+
+    /**
+     * Solve puzzles against a word list read from a reader, which is not closed.
+     *
+     * @param reader
+     *         a source of words, one per line
+     * @param puzzles
+     *         the puzzles to solve
+     * @return the solutions to each puzzle, in the same order as {@code puzzles}, agreeing with
+     * {@link PuzzleMaster#solutionsTo(Puzzle)} for a {@code PuzzleMaster} built from the same
+     * words with no constraints
+     * @throws IOException
+     *         if the reader fails
+     */
+    static List<Set<String>> solve(BufferedReader reader, List<Puzzle> puzzles)
+            throws IOException {
+        final int count = puzzles.size();
+        final int[] potVectors = new int[count];
+        final int[] requiredVectors = new int[count];
+        int anyPot = 0;
+        final List<Set<String>> result = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            potVectors[i] = puzzles.get(i).potVector;
+            requiredVectors[i] = puzzles.get(i).requiredVector;
+            anyPot |= potVectors[i];
+            result.add(new HashSet<>());
+        }
+
+        String word;
+        outer:
+        while ((word = reader.readLine()) != null) {
+            if (word.length() < Puzzle.MINIMUM_WORD_LENGTH) {
+                continue;
+            }
+            int vector = 0;
+            for (int i = 0; i < word.length(); i++) {
+                final int ordinal = word.charAt(i) - 'a';
+                if (ordinal < 0 || ordinal >= 26 || (anyPot & (1 << ordinal)) == 0) {
+                    continue outer;
+                }
+                vector |= 1 << ordinal;
+            }
+            if (Integer.bitCount(vector) > Puzzle.POT_SIZE) {
+                continue;
+            }
+            for (int i = 0; i < count; i++) {
+                if ((vector & ~potVectors[i]) == 0
+                        && (vector & requiredVectors[i]) == requiredVectors[i]) {
+                    result.get(i).add(word);
+                }
+            }
+        }
+        return result;
+    }
+
+}
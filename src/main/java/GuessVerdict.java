@@ -0,0 +1,39 @@
+/**
+ * The result of checking a player's guess against a puzzle.
+ *
+ * @see PuzzleMaster#validate(Puzzle, CharSequence)
+ * @see PuzzleSessionEngine#submit(int, CharSequence)
+ */
+enum GuessVerdict {
+    /**
+     * The guess is a solution to the puzzle.
+     */
+    ACCEPTED,
+
+    /**
+     * The guess has fewer than {@value Puzzle#MINIMUM_WORD_LENGTH} letters.
+     */
+    TOO_SHORT,
+
+    /**
+     * The guess contains a character that is not a letter in the puzzle's pot.
+     */
+    LETTER_NOT_IN_POT,
+
+    /**
+     * The guess uses only letters from the pot, but omits a required letter.
+     */
+    MISSING_REQUIRED_LETTER,
+
+    /**
+     * The guess is well-formed for the puzzle, but is not in the word list.
+     */
+    NOT_IN_WORD_LIST,
+
+    /**
+     * The guess is a solution to the puzzle, but the player has already found it.
+     *
+     * @see PuzzleSessionEngine#submit(int, CharSequence)
+     */
+    ALREADY_FOUND
+}
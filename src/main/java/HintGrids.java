@@ -0,0 +1,347 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * Precomputed hint grids for every puzzle of a {@link PuzzleMaster}. For each puzzle there are
+ * two grids:
+ * </p>
+ * <ul>
+ * <li>the <em>length grid</em>, counting solutions by first letter and by length; and</li>
+ * <li>the <em>prefix grid</em>, counting solutions by their first two letters.</li>
+ * </ul>
+ * <p>
+ * Letters are identified by their <em>rank</em> within the puzzle's pot: the letters of the pot
+ * in alphabetical order have ranks {@code 0} through {@code POT_SIZE - 1}. Lengths are grouped
+ * into {@value #LENGTH_COLUMNS} columns: column {@code c} counts words of length
+ * {@code MINIMUM_WORD_LENGTH + c}, except that the last column also counts all longer words.
+ * </p>
+ * <p>
+ * The grids are built in one parallel pass. First, partial grids are computed for each bucket
+ * of words with the same character vector; then each puzzle's grids are the sums of the partial
+ * grids of the (at most 64) buckets that make up its solutions, so no word is examined more than
+ * once however many puzzles it solves. The results are stored as unsigned 16-bit counts, of at
+ * most {@value #MAXIMUM_COUNT} each, in a single buffer, which can be written to a file and later
+ * {@linkplain #map(Path) memory-mapped}. The file format is big-endian: a header of four integers
+ * ({@link #MAGIC}, {@link #VERSION}, the puzzle count, and {@value #LENGTH_COLUMNS}); then a pot
+ * vector and a required vector for each puzzle, in increasing order of pot vector and then
+ * required vector; then the grids of each puzzle, in the same order, each as {@value
+ * #GRID_SHORTS} unsigned shorts (the length grid in row-major order by letter rank, then the
+ * prefix grid in row-major order by first letter rank).
+ * </p>
+ */
+final class HintGrids {
+
+    /**
+     * The first integer of a hint-grid file: {@code "SBHG"} in ASCII.
+     */
+    static final int MAGIC = 0x53424847;
+
+    /**
+     * The version of the file format described in the class documentation.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The number of length columns in each length grid.
+     */
+    static final int LENGTH_COLUMNS = 11;
+
+    private static final int LENGTH_GRID_SHORTS = Puzzle.POT_SIZE * LENGTH_COLUMNS;
+    private static final int PREFIX_GRID_SHORTS = Puzzle.POT_SIZE * Puzzle.POT_SIZE;
+
+    /**
+     * The number of 16-bit counts in each puzzle's pair of grids.
+     */
+    static final int GRID_SHORTS = LENGTH_GRID_SHORTS + PREFIX_GRID_SHORTS;
+
+    /**
+     * The largest count that a grid entry can hold.
+     */
+    static final int MAXIMUM_COUNT = 0xffff;
+
+    private static final int HEADER_BYTES = 16;
+
+    private final ByteBuffer buffer;
+    private final int gridsStart;
+
+    /**
+     * The number of puzzles with grids.
+     */
+    final int puzzleCount;
+
+    private HintGrids(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not a hint-grid file");
+        }
+        if (buffer.getInt(4) != VERSION || buffer.getInt(12) != LENGTH_COLUMNS) {
+            throw new IllegalArgumentException("unsupported hint-grid file version");
+        }
+        puzzleCount = buffer.getInt(8);
+        gridsStart = HEADER_BYTES + 8 * puzzleCount;
+    }
+
+    static void printUsage() {
+        final List<String> args = Arrays.asList(
+                HintGrids.class.getName(),
+                "<words_file>",
+                "<output_file>");
+        System.out.println("Usage: java " + args.stream().collect(Collectors.joining(" ")));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            printUsage();
+            System.exit(1);
+        }
+        final String wordsFilename = args[0];
+        final Path outPath = Paths.get(args[1]);
+
+        System.out.println("Reading dictionary...");
+        final List<String> words = Files.readAllLines(Paths.get(wordsFilename));
+
+        System.out.println("Compiling generic puzzle data...");
+        final PuzzleMaster pm = new PuzzleMaster(words);
+
+        System.out.printf("Building hint grids for %d puzzles...%n", pm.puzzles.size());
+        final HintGrids grids = build(pm);
+
+        System.out.printf("Writing hint grids to '%s'...%n", outPath);
+        grids.writeTo(outPath);
+        System.out.println("Done.");
+    }
+
+    /**
+     * Compute the hint grids for all of a {@code PuzzleMaster}'s puzzles, in memory.
+     *
+     * @param pm
+     *         the source of the puzzles and their solutions
+     * @return the hint grids
+     * @throws IllegalArgumentException
+     *         if any grid entry would exceed {@link #MAXIMUM_COUNT}
+     */
+    static HintGrids build(PuzzleMaster pm) {
+        final int[][] partials = new int[pm.bucketCount()][];
+        IntStream.range(0, pm.bucketCount()).parallel()
+                .forEach(i -> partials[i] = partialGrids(pm, i));
+
+        final long[] keys = pm.puzzles.stream()
+                .mapToLong(puzzle -> (long) puzzle.potVector << 32 | puzzle.requiredVector)
+                .sorted()
+                .toArray();
+        final ByteBuffer buffer = ByteBuffer.allocate(
+                HEADER_BYTES + keys.length * (8 + 2 * GRID_SHORTS));
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, keys.length);
+        buffer.putInt(12, LENGTH_COLUMNS);
+        final int gridsStart = HEADER_BYTES + 8 * keys.length;
+        IntStream.range(0, keys.length).parallel().forEach(p -> {
+            final int pot = (int) (keys[p] >>> 32);
+            final int required = (int) keys[p];
+            buffer.putInt(HEADER_BYTES + 8 * p, pot);
+            buffer.putInt(HEADER_BYTES + 8 * p + 4, required);
+            final int[] grids = puzzleGrids(pm, partials, pot, required);
+            final int base = gridsStart + 2 * GRID_SHORTS * p;
+            for (int i = 0; i < GRID_SHORTS; i++) {
+                if (grids[i] > MAXIMUM_COUNT) {
+                    throw new IllegalArgumentException(String.format(
+                            "too many solutions for hint grids: %s > %s",
+                            grids[i], MAXIMUM_COUNT));
+                }
+                buffer.putChar(base + 2 * i, (char) grids[i]);
+            }
+        });
+        return new HintGrids(buffer);
+    }
+
+    /**
+     * Compute the grids for the words of a single bucket, with letters ranked within the bucket's
+     * own character vector rather than within a pot.
+     */
+    private static int[] partialGrids(PuzzleMaster pm, int bucketIndex) {
+        final int vector = pm.bucketVector(bucketIndex);
+        final int[] grids = new int[GRID_SHORTS];
+        for (int id = pm.bucketStart(bucketIndex); id < pm.bucketStart(bucketIndex + 1); id++) {
+            final String word = pm.word(id);
+            final int first = rank(vector, word.charAt(0));
+            final int second = rank(vector, word.charAt(1));
+            final int column = Math.min(
+                    word.length() - Puzzle.MINIMUM_WORD_LENGTH, LENGTH_COLUMNS - 1);
+            grids[first * LENGTH_COLUMNS + column]++;
+            grids[LENGTH_GRID_SHORTS + first * Puzzle.POT_SIZE + second]++;
+        }
+        return grids;
+    }
+
+    /**
+     * Sum the partial grids of all buckets in a puzzle's solutions, re-ranking each bucket's
+     * letters within the pot.
+     */
+    private static int[] puzzleGrids(PuzzleMaster pm, int[][] partials, int pot, int required) {
+        final int[] grids = new int[GRID_SHORTS];
+        final int[] potRanks = new int[Puzzle.POT_SIZE];
+        final int optional = pot & ~required;
+        final int[] bucketIndices = new int[1 << Integer.bitCount(optional)];
+        final int bucketCount = pm.bucketIndicesFor(required, optional, bucketIndices);
+        for (int b = 0; b < bucketCount; b++) {
+            final int index = bucketIndices[b];
+            final int vector = pm.bucketVector(index);
+            final int[] partial = partials[index];
+            int remaining = vector;
+            for (int r = 0; remaining != 0; r++) {
+                potRanks[r] = Integer.bitCount(pot & (Integer.lowestOneBit(remaining) - 1));
+                remaining &= remaining - 1;
+            }
+            final int letters = Integer.bitCount(vector);
+            for (int r = 0; r < letters; r++) {
+                for (int c = 0; c < LENGTH_COLUMNS; c++) {
+                    grids[potRanks[r] * LENGTH_COLUMNS + c] += partial[r * LENGTH_COLUMNS + c];
+                }
+                for (int s = 0; s < letters; s++) {
+                    grids[LENGTH_GRID_SHORTS + potRanks[r] * Puzzle.POT_SIZE + potRanks[s]] +=
+                            partial[LENGTH_GRID_SHORTS + r * Puzzle.POT_SIZE + s];
+                }
+            }
+        }
+        return grids;
+    }
+
+    /**
+     * Compute the rank of a letter within a character vector.
+     *
+     * @param vector
+     *         a character vector containing the letter
+     * @param letter
+     *         a lowercase letter
+     * @return the number of letters in {@code vector} that precede {@code letter}
+     */
+    private static int rank(int vector, char letter) {
+        return Integer.bitCount(vector & ((1 << (letter - 'a')) - 1));
+    }
+
+    /**
+     * Map a hint-grid file into memory.
+     *
+     * @param path
+     *         a file written by {@link #writeTo(Path)}
+     * @return the hint grids
+     * @throws IOException
+     *         if the file cannot be mapped
+     * @throws IllegalArgumentException
+     *         if the file is not a supported hint-grid file
+     */
+    static HintGrids map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new HintGrids(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write these hint grids to a file, in the format described in the class documentation.
+     *
+     * @param path
+     *         the file to write
+     * @throws IOException
+     *         if thrown while writing the file
+     */
+    void writeTo(Path path) throws IOException {
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.clear();
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while (duplicate.hasRemaining()) {
+                channel.write(duplicate);
+            }
+        }
+    }
+
+    /**
+     * Find the index of a puzzle's grids.
+     *
+     * @param puzzle
+     *         a puzzle
+     * @return the index of the puzzle's grids, or {@code -1} if the puzzle has none
+     */
+    int indexOf(Puzzle puzzle) {
+        int low = 0;
+        int high = puzzleCount - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            int comparison = Integer.compare(
+                    buffer.getInt(HEADER_BYTES + 8 * mid), puzzle.potVector);
+            if (comparison == 0) {
+                comparison = Integer.compare(
+                        buffer.getInt(HEADER_BYTES + 8 * mid + 4), puzzle.requiredVector);
+            }
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get the puzzle at an index.
+     *
+     * @param index
+     *         a puzzle index, less than {@link #puzzleCount}
+     * @return the puzzle whose grids are at that index
+     */
+    Puzzle puzzle(int index) {
+        return new Puzzle(
+                buffer.getInt(HEADER_BYTES + 8 * index),
+                buffer.getInt(HEADER_BYTES + 8 * index + 4));
+    }
+
+    /**
+     * Read an entry of a puzzle's length grid.
+     *
+     * @param index
+     *         a puzzle index, less than {@link #puzzleCount}
+     * @param letterRank
+     *         the rank of a letter within the puzzle's pot
+     * @param lengthColumn
+     *         a length column, less than {@value #LENGTH_COLUMNS}
+     * @return the number of solutions that start with the letter and fall in the length column
+     */
+    int lengthCount(int index, int letterRank, int lengthColumn) {
+        return buffer.getChar(
+                gridsStart + 2 * (GRID_SHORTS * index + letterRank * LENGTH_COLUMNS
+                        + lengthColumn));
+    }
+
+    /**
+     * Read an entry of a puzzle's prefix grid.
+     *
+     * @param index
+     *         a puzzle index, less than {@link #puzzleCount}
+     * @param firstRank
+     *         the rank of the first letter within the puzzle's pot
+     * @param secondRank
+     *         the rank of the second letter within the puzzle's pot
+     * @return the number of solutions that start with the two letters
+     */
+    int prefixCount(int index, int firstRank, int secondRank) {
+        return buffer.getChar(
+                gridsStart + 2 * (GRID_SHORTS * index + LENGTH_GRID_SHORTS
+                        + firstRank * Puzzle.POT_SIZE + secondRank));
+    }
+
+}
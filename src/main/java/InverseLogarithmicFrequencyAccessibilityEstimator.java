@@ -1,4 +1,3 @@
-import java.util.Collection;
 import java.util.Map;
 
 /**
@@ -53,11 +52,9 @@ final class InverseLogarithmicFrequencyAccessibilityEstimator
     }
 
     @Override
-    public double accessibility(Puzzle puzzle, Collection<String> solutions) {
-        return solutions.stream().mapToDouble(x -> {
-            final double rarity = -Math.log(wordFrequency(x));
-            final double rectifiedRarity = Math.log1p(Math.exp(rarity - cotail));
-            return 1.0 / (1 + rectifiedRarity * falloff);
-        }).sum();
+    double wordWeight(String word) {
+        final double rarity = -Math.log(wordFrequency(word));
+        final double rectifiedRarity = Math.log1p(Math.exp(rarity - cotail));
+        return 1.0 / (1 + rectifiedRarity * falloff);
     }
 }
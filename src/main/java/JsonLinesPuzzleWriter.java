@@ -0,0 +1,43 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A {@link PuzzleWriter} that emits one JSON object per line per puzzle, of the form
+ * <pre>
+ * {"page":0,"required":"c","optional":"ginopr","good":8,"excellent":15,"genius":22}
+ * </pre>
+ * where {@code page} is the zero-based index of the page on which the puzzle appears.
+ */
+final class JsonLinesPuzzleWriter extends AbstractPuzzleWriter {
+
+    /**
+     * The index of the next page to be written.
+     */
+    private int page;
+
+    JsonLinesPuzzleWriter(Writer out) {
+        super(out);
+    }
+
+    @Override
+    public void writePage(PuzzleDatum... puzzles) throws IOException {
+        for (PuzzleDatum datum : puzzles) {
+            final int required = datum.puzzle.requiredVector;
+            out.write("{\"page\":");
+            writeInt(page);
+            out.write(",\"required\":\"");
+            writeLetters(required, 'a', (char) 0);
+            out.write("\",\"optional\":\"");
+            writeLetters(datum.puzzle.potVector & ~required, 'a', (char) 0);
+            out.write("\",\"good\":");
+            writeInt(datum.good);
+            out.write(",\"excellent\":");
+            writeInt(datum.excellent);
+            out.write(",\"genius\":");
+            writeInt(datum.genius);
+            out.write("}\n");
+        }
+        page++;
+    }
+
+}
@@ -0,0 +1,142 @@
+/**
+ * <p>
+ * A histogram of non-negative latencies, in nanoseconds, with bounded relative error.
+ * </p>
+ * <p>
+ * Values below {@code 2 * SUB_BUCKETS} are counted exactly. Larger values are counted in
+ * log-linear buckets: each power-of-two range is split into {@link #SUB_BUCKETS} equal parts, so
+ * that a reported percentile is at most {@code 1 / SUB_BUCKETS} (about 3%) above the true value.
+ * Recording a value is a few arithmetic operations and an array increment, with no allocation.
+ * </p>
+ * <p>
+ * Histograms are not thread-safe. A multi-threaded benchmark should give each thread its own
+ * histogram and {@linkplain #merge(LatencyHistogram) merge} them afterward.
+ * </p>
+ */
+final class LatencyHistogram {
+
+    /**
+     * The base-2 logarithm of {@link #SUB_BUCKETS}.
+     */
+    private static final int SUB_BUCKET_BITS = 5;
+
+    /**
+     * The number of buckets into which each power-of-two range of values is divided.
+     */
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The number of buckets needed to cover every non-negative {@code long}.
+     */
+    private static final int BUCKET_COUNT =
+            2 * SUB_BUCKETS + (Long.SIZE - 2 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final long[] counts = new long[BUCKET_COUNT];
+    private long totalCount;
+    private long maximum;
+
+    /**
+     * Record one observation.
+     *
+     * @param nanos
+     *         the observed latency, in nanoseconds
+     * @throws IllegalArgumentException
+     *         if {@code nanos} is negative
+     */
+    void record(long nanos) {
+        if (nanos < 0) {
+            throw new IllegalArgumentException("negative latency: " + nanos);
+        }
+        counts[bucketOf(nanos)]++;
+        totalCount++;
+        maximum = Math.max(maximum, nanos);
+    }
+
+    /**
+     * Add all observations from another histogram to this one.
+     *
+     * @param other
+     *         the histogram whose observations to add; not modified
+     */
+    void merge(LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts[i] += other.counts[i];
+        }
+        totalCount += other.totalCount;
+        maximum = Math.max(maximum, other.maximum);
+    }
+
+    /**
+     * @return the number of observations recorded
+     */
+    long count() {
+        return totalCount;
+    }
+
+    /**
+     * @return the largest observation recorded, or 0 if there are none
+     */
+    long maximum() {
+        return maximum;
+    }
+
+    /**
+     * Estimate a percentile of the recorded observations.
+     *
+     * @param quantile
+     *         the fraction of observations that should be at most the result, in [0, 1]
+     * @return the upper bound of the bucket containing the observation of the given rank, capped
+     * at the maximum observation; or 0 if there are no observations
+     * @throws IllegalArgumentException
+     *         if {@code quantile} is not in [0, 1]
+     */
+    long percentile(double quantile) {
+        if (!(0 <= quantile && quantile <= 1)) {
+            throw new IllegalArgumentException("quantile out of range: " + quantile);
+        }
+        if (totalCount == 0) {
+            return 0;
+        }
+        final long rank = Math.max(1, (long) Math.ceil(quantile * totalCount));
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(maximum, upperBoundOf(i));
+            }
+        }
+        return maximum;
+    }
+
+    /**
+     * Compute the bucket containing a non-negative value.
+     */
+    static int bucketOf(long value) {
+        if (value < 2 * SUB_BUCKETS) {
+            return (int) value;
+        }
+        final int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+        final int shift = exponent - SUB_BUCKET_BITS;
+        final int mantissa = (int) (value >>> shift);  // in [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        return 2 * SUB_BUCKETS + (shift - 1) * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    /**
+     * Compute the largest value contained in a bucket.
+     */
+    static long upperBoundOf(int bucket) {
+        if (bucket < 2 * SUB_BUCKETS) {
+            return bucket;
+        }
+        final int shift = (bucket - 2 * SUB_BUCKETS) / SUB_BUCKETS + 1;
+        final long mantissa = SUB_BUCKETS + (bucket - 2 * SUB_BUCKETS) % SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("LatencyHistogram[count=%d, p50=%d, p99=%d, max=%d]",
+                totalCount, percentile(0.5), percentile(0.99), maximum);
+    }
+
+}
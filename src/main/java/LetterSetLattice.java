@@ -0,0 +1,287 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * A dense table over every {@linkplain Puzzle character vector} of an alphabet, answering word
+ * count, bingo count, and score queries for arbitrary pots and required letters in constant
+ * time, including pots that are not among a {@link PuzzleMaster}'s {@link PuzzleMaster#pots}.
+ * </p>
+ * <p>
+ * For each vector {@code v}, the table holds a packed counter: the low {@value #SUBSET_BITS}
+ * bits count the words whose character vectors are subvectors of {@code v}, and the high
+ * {@value #EXACT_BITS} bits count the words whose character vector is exactly {@code v}. The
+ * subset counts are filled in from the exact counts by a parallel sum-over-subsets pass, one
+ * pass per letter of the alphabet.
+ * </p>
+ * <p>
+ * The table is stored in a memory-mapped file: a header of {@link #MAGIC}, {@link #VERSION},
+ * and the alphabet size <i>a</i>, followed by 2<sup><i>a</i></sup> counters, all big-endian.
+ * For the full 26-letter alphabet the file is 256 MiB, all of which lives outside the heap.
+ * Smaller alphabets (using only the first <i>a</i> letters) are supported, mostly for testing;
+ * words with letters outside the alphabet are not counted.
+ * </p>
+ */
+final class LetterSetLattice {
+
+    /**
+     * The first integer of a lattice file: {@code "SBLT"} in ASCII.
+     */
+    static final int MAGIC = 0x53424c54;
+
+    /**
+     * The version of the file format described in the class documentation.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The number of low bits of each counter used for the subset count.
+     */
+    static final int SUBSET_BITS = 22;
+
+    /**
+     * The number of high bits of each counter used for the exact count.
+     */
+    static final int EXACT_BITS = 32 - SUBSET_BITS;
+
+    private static final int SUBSET_MASK = (1 << SUBSET_BITS) - 1;
+    private static final int HEADER_BYTES = 12;
+
+    /**
+     * The number of vectors processed as a unit by each task of the parallel passes.
+     */
+    private static final int CHUNK_SIZE = 1 << 16;
+
+    /**
+     * The number of letters in the alphabet of this lattice.
+     */
+    final int alphabetSize;
+
+    private final IntBuffer counters;
+
+    private LetterSetLattice(ByteBuffer buffer) {
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not a lattice file");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("unsupported version: " + buffer.getInt(4));
+        }
+        alphabetSize = buffer.getInt(8);
+        buffer.position(HEADER_BYTES);
+        counters = buffer.slice().asIntBuffer();
+        if (counters.capacity() != 1 << alphabetSize) {
+            throw new IllegalArgumentException("truncated lattice file");
+        }
+    }
+
+    static void printUsage() {
+        final List<String> args = Arrays.asList(
+                LetterSetLattice.class.getName(),
+                "<words_file>",
+                "<output_file>");
+        System.out.println("Usage: java " + args.stream().collect(Collectors.joining(" ")));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            printUsage();
+            System.exit(1);
+        }
+        final String wordsFilename = args[0];
+        final Path outPath = Paths.get(args[1]);
+
+        System.out.println("Reading dictionary...");
+        final List<String> words = Files.readAllLines(Paths.get(wordsFilename));
+
+        System.out.println("Compiling generic puzzle data...");
+        final PuzzleMaster pm = new PuzzleMaster(words);
+
+        System.out.printf("Building lattice in '%s'...%n", outPath);
+        build(pm, 26, outPath);
+        System.out.println("Done.");
+    }
+
+    /**
+     * Build a lattice file from a {@code PuzzleMaster}'s words, and map it into memory.
+     *
+     * @param pm
+     *         the source of the words
+     * @param alphabetSize
+     *         the number of letters in the alphabet, at most 26
+     * @param path
+     *         the file to create or overwrite
+     * @return the lattice, backed by the new file
+     * @throws IOException
+     *         if the file cannot be created or mapped
+     * @throws IllegalArgumentException
+     *         if a count does not fit in its counter
+     */
+    static LetterSetLattice build(PuzzleMaster pm, int alphabetSize, Path path)
+            throws IOException {
+        if (alphabetSize < 1 || alphabetSize > 26) {
+            throw new IllegalArgumentException("alphabet size out of range: " + alphabetSize);
+        }
+        if (pm.words.size() > SUBSET_MASK) {
+            throw new IllegalArgumentException("too many words: " + pm.words.size());
+        }
+        final int size = 1 << alphabetSize;
+        final ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES + 4L * size);
+        }
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, alphabetSize);
+        buffer.position(HEADER_BYTES);
+        final IntBuffer counters = buffer.slice().asIntBuffer();
+
+        // Seed each vector's subset count with its exact count.
+        for (int i = 0; i < pm.bucketCount(); i++) {
+            final int vector = pm.bucketVector(i);
+            if (vector < size) {
+                counters.put(vector, pm.bucketStart(i + 1) - pm.bucketStart(i));
+            }
+        }
+
+        // Sum over subsets: after the pass for letter b, each counter includes all subvectors
+        // that differ from it only in letters up to b.
+        final int halfSize = size >>> 1;
+        for (int letter = 0; letter < alphabetSize; letter++) {
+            final int bit = 1 << letter;
+            final int lowMask = bit - 1;
+            IntStream.range(0, Math.max(1, halfSize / CHUNK_SIZE)).parallel().forEach(chunk -> {
+                final int end = Math.min(halfSize, (chunk + 1) * CHUNK_SIZE);
+                for (int j = chunk * CHUNK_SIZE; j < end; j++) {
+                    // Insert a zero at the current letter's position to get a vector without
+                    // the letter, then add its count to the vector with the letter.
+                    final int without = ((j & ~lowMask) << 1) | (j & lowMask);
+                    final int with = without | bit;
+                    counters.put(with, counters.get(with) + counters.get(without));
+                }
+            });
+        }
+
+        // Pack the exact counts into the high bits.
+        for (int i = 0; i < pm.bucketCount(); i++) {
+            final int vector = pm.bucketVector(i);
+            if (vector < size) {
+                final int exact = pm.bucketStart(i + 1) - pm.bucketStart(i);
+                if (exact >= 1 << EXACT_BITS) {
+                    throw new IllegalArgumentException(String.format(
+                            "too many words with character vector %s: %d",
+                            Puzzle.characterUnvector(vector), exact));
+                }
+                counters.put(vector, counters.get(vector) | exact << SUBSET_BITS);
+            }
+        }
+        buffer.clear();
+        return new LetterSetLattice(buffer);
+    }
+
+    /**
+     * Map an existing lattice file into memory.
+     *
+     * @param path
+     *         a file created by {@link #build(PuzzleMaster, int, Path)}
+     * @return the lattice
+     * @throws IOException
+     *         if the file cannot be mapped
+     * @throws IllegalArgumentException
+     *         if the file is not a supported lattice file
+     */
+    static LetterSetLattice map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new LetterSetLattice(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Count the words that use no letters outside a pot.
+     *
+     * @param pot
+     *         a character vector within the alphabet
+     * @return the number of words whose character vectors are subvectors of {@code pot}
+     */
+    int subsetCount(int pot) {
+        return counters.get(pot) & SUBSET_MASK;
+    }
+
+    /**
+     * Count the bingos of a pot: the words that use every letter of the pot.
+     *
+     * @param pot
+     *         a character vector within the alphabet
+     * @return the number of words whose character vector is exactly {@code pot}
+     */
+    int bingoCount(int pot) {
+        return counters.get(pot) >>> SUBSET_BITS;
+    }
+
+    /**
+     * <p>
+     * Count the words that can be formed from a pot using every one of a set of required
+     * letters. With a single required letter, this is two counter reads; in general, it reads
+     * 2<sup><i>r</i></sup> counters, where <i>r</i> is the number of required letters, by
+     * inclusion–exclusion.
+     * </p>
+     *
+     * @param pot
+     *         a character vector within the alphabet
+     * @param required
+     *         a subvector of {@code pot}
+     * @return the number of words whose character vectors are subvectors of {@code pot} and
+     * supervectors of {@code required}
+     */
+    int wordCount(int pot, int required) {
+        int count = 0;
+        int subvector = required;
+        while (true) {
+            final int sign = (Integer.bitCount(subvector) & 1) == 0 ? 1 : -1;
+            count += sign * subsetCount(pot & ~subvector);
+            if (subvector == 0) {
+                break;
+            }
+            subvector = (subvector - 1) & required;
+        }
+        return count;
+    }
+
+    /**
+     * Compute the score of a puzzle variant, as in {@link Puzzle#score(java.util.Collection)}.
+     * Only pots with at most {@value Puzzle#POT_SIZE} letters are supported, since only then are
+     * the bingos exactly the words that use every letter of the pot.
+     *
+     * @param pot
+     *         a character vector within the alphabet with at most {@value Puzzle#POT_SIZE}
+     *         letters
+     * @param required
+     *         a subvector of {@code pot}
+     * @return the total score of all words that can be formed
+     * @throws IllegalArgumentException
+     *         if the pot has too many letters
+     */
+    int score(int pot, int required) {
+        final int letters = Integer.bitCount(pot);
+        if (letters > Puzzle.POT_SIZE) {
+            throw new IllegalArgumentException("pot too large: " + Puzzle.characterUnvector(pot));
+        }
+        final int bingos = letters == Puzzle.POT_SIZE ? bingoCount(pot) : 0;
+        return wordCount(pot, required) + (Puzzle.BINGO_SCORE - 1) * bingos;
+    }
+
+}
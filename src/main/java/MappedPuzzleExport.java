@@ -0,0 +1,159 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only view of a binary file written by {@link PuzzleExporter}, backed by a memory
+ * mapping of the file. Puzzles are identified by their index in the puzzle table.
+ */
+final class MappedPuzzleExport {
+
+    /**
+     * The number of bytes in the header: magic number, version, word count, and puzzle count.
+     */
+    private static final int HEADER_BYTES = 16;
+
+    private final ByteBuffer buffer;
+    private final IntBuffer wordOffsets;
+    private final int wordDataStart;
+    private final IntBuffer records;
+    private final IntBuffer solutionIds;
+
+    /**
+     * The number of words in the exported dictionary.
+     */
+    final int wordCount;
+
+    /**
+     * The number of puzzles in the puzzle table.
+     */
+    final int puzzleCount;
+
+    private MappedPuzzleExport(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES) {
+            throw new IllegalArgumentException("truncated puzzle export file");
+        }
+        if (buffer.getInt(0) != PuzzleExporter.MAGIC) {
+            throw new IllegalArgumentException("not a puzzle export file");
+        }
+        if (buffer.getInt(4) != PuzzleExporter.VERSION) {
+            throw new IllegalArgumentException("unsupported version: " + buffer.getInt(4));
+        }
+        wordCount = buffer.getInt(8);
+        puzzleCount = buffer.getInt(12);
+        // Check each declared length against the file before reading past the header.
+        final long wordDataStart = HEADER_BYTES + 4L * (wordCount + 1L);
+        if (wordCount < 0 || puzzleCount < 0 || buffer.capacity() < wordDataStart) {
+            throw new IllegalArgumentException("truncated puzzle export file");
+        }
+        this.wordDataStart = (int) wordDataStart;
+        wordOffsets = slice(HEADER_BYTES, wordCount + 1);
+        final int wordDataLength = wordOffsets.get(wordCount);
+        final long recordsStart = wordDataStart + (wordDataLength + 3L) / 4 * 4;
+        final long solutionsStart =
+                recordsStart + 4L * puzzleCount * PuzzleExporter.RECORD_INTS;
+        if (wordDataLength < 0 || buffer.capacity() < solutionsStart) {
+            throw new IllegalArgumentException("truncated puzzle export file");
+        }
+        records = slice((int) recordsStart, puzzleCount * PuzzleExporter.RECORD_INTS);
+        final long solutionCount = puzzleCount == 0 ? 0 :
+                (long) field(puzzleCount - 1, 7) + field(puzzleCount - 1, 2);
+        if (buffer.capacity() != solutionsStart + 4 * solutionCount) {
+            throw new IllegalArgumentException(String.format(
+                    "puzzle export file is %s bytes, but its header declares %s",
+                    buffer.capacity(), solutionsStart + 4 * solutionCount));
+        }
+        solutionIds = slice((int) solutionsStart, (int) solutionCount);
+    }
+
+    private IntBuffer slice(int byteOffset, int intCount) {
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(byteOffset);
+        duplicate.limit(byteOffset + 4 * intCount);
+        return duplicate.slice().asIntBuffer();
+    }
+
+    /**
+     * Map an export file into memory.
+     *
+     * @param path
+     *         a file written by {@link PuzzleExporter} in binary format
+     * @return a view of the file
+     * @throws IOException
+     *         if the file cannot be mapped
+     * @throws IllegalArgumentException
+     *         if the file is not a supported export file, or is not as long as its header
+     *         declares
+     */
+    static MappedPuzzleExport map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedPuzzleExport(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Decode the word with the given ID.
+     *
+     * @param id
+     *         a word ID, less than {@link #wordCount}
+     * @return the word
+     */
+    String word(int id) {
+        final int start = wordOffsets.get(id);
+        final byte[] bytes = new byte[wordOffsets.get(id + 1) - start];
+        final ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(wordDataStart + start);
+        duplicate.get(bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private int field(int puzzleIndex, int field) {
+        return records.get(puzzleIndex * PuzzleExporter.RECORD_INTS + field);
+    }
+
+    Puzzle puzzle(int puzzleIndex) {
+        return new Puzzle(field(puzzleIndex, 0), field(puzzleIndex, 1));
+    }
+
+    int solutionCount(int puzzleIndex) {
+        return field(puzzleIndex, 2);
+    }
+
+    int score(int puzzleIndex) {
+        return field(puzzleIndex, 3);
+    }
+
+    int good(int puzzleIndex) {
+        return field(puzzleIndex, 4);
+    }
+
+    int excellent(int puzzleIndex) {
+        return field(puzzleIndex, 5);
+    }
+
+    int genius(int puzzleIndex) {
+        return field(puzzleIndex, 6);
+    }
+
+    /**
+     * Read the solution word IDs of a puzzle.
+     *
+     * @param puzzleIndex
+     *         a puzzle index, less than {@link #puzzleCount}
+     * @return the word IDs of the puzzle's solutions, in increasing order
+     */
+    int[] solutionIds(int puzzleIndex) {
+        final int[] result = new int[solutionCount(puzzleIndex)];
+        final IntBuffer duplicate = solutionIds.duplicate();
+        duplicate.position(field(puzzleIndex, 7));
+        duplicate.get(result);
+        return result;
+    }
+
+}
@@ -140,12 +140,19 @@ final class Puzzle {
      * {@linkplain Puzzle character vectors}, and so they must contain only characters from the
      * lowercase Latin alphabet.
      * </p>
+     * <p>
+     * A view from {@link PuzzleMaster#compactSolutionsTo(Puzzle)} is scored per bucket, without
+     * visiting its words.
+     * </p>
      *
      * @param words
      *         the set of words to score
      * @return the integer score for the provided collection
      */
     static int score(Collection<String> words) {
+        if (words instanceof BucketSolutionSet) {
+            return ((BucketSolutionSet) words).score();
+        }
         return words.stream().mapToInt(w ->
                 Integer.bitCount(characterVector(w.toCharArray())) >= POT_SIZE ?
                 BINGO_SCORE : 1
@@ -1,30 +1,117 @@
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 /**
+ * <p>
  * Entry point to generate and solve all possible puzzles. The results aren't saved anywhere, so
  * this is useful only for timing purposes (or for counting how many puzzles there are).
+ * </p>
+ * <p>
+ * With {@code --shard i/n}, solves only the puzzles whose pots are in shard {@code i} of {@code
+ * n}, as assigned by {@link PuzzleResultTable#shardOf(int, int)}, so that {@code n} processes
+ * together solve every puzzle exactly once.
+ * </p>
+ * <p>
+ * With {@code --load}, instead runs a load test: a fixed number of threads repeatedly pick a
+ * puzzle according to a {@link Mix} and time each operation on it, for a fixed duration. The
+ * operations are {@code solutionsTo}, scoring via {@code aggregateFor}, and (if a frequencies
+ * file is given) an accessibility estimate of the solutions. For each operation, one line is
+ * printed with its throughput and latency percentiles (excluding a short warmup), as
+ * tab-separated {@code key=value} pairs in a fixed order, so that results can be compared across
+ * commits with ordinary text tools.
+ * </p>
  */
 final class PuzzleBenchmark {
 
+    /**
+     * How long load-test threads run before their latencies are recorded, to let the JIT
+     * compiler settle.
+     */
+    static final int WARMUP_SECONDS = 2;
+
+    /**
+     * How load-test threads choose which puzzle to operate on next.
+     */
+    enum Mix {
+        /**
+         * Every puzzle is equally likely.
+         */
+        UNIFORM,
+        /**
+         * The puzzle of rank {@code k} (in a fixed random order) is chosen with probability
+         * proportional to {@code 1 / k}, so that a small hot set dominates, as with popular
+         * puzzles in a live service.
+         */
+        ZIPF,
+    }
+
     static void printUsage() {
         final List<String> args = Arrays.asList(
                 PuzzleBenchmark.class.getName(),
-                "<words_file>");
+                "<words_file>",
+                "[--shard <i>/<n> | --load <threads> <seconds> <uniform|zipf> "
+                        + "[<frequencies_file>]]");
         System.out.println("Usage: java " + args.stream().collect(Collectors.joining(" ")));
     }
 
-    public static void main(String[] args) throws IOException {
-        if (args.length != 1) {
+    public static void main(String[] args) throws IOException, InterruptedException {
+        final boolean load = args.length >= 5 && args[1].equals("--load");
+        final boolean sharded = args.length == 3 && args[1].equals("--shard")
+                && args[2].matches("[0-9]+/[0-9]+");
+        if (!(args.length == 1 || sharded || (load && args.length <= 6))) {
             printUsage();
             System.exit(1);
         }
         final String wordsFilename = args[0];
+        int shard = 0;
+        int shardCount = 1;
+        if (sharded) {
+            final String[] parts = args[2].split("/");
+            try {
+                shard = Integer.parseInt(parts[0]);
+                shardCount = Integer.parseInt(parts[1]);
+            } catch (NumberFormatException e) {
+                printUsage();
+                System.exit(1);
+            }
+            if (shard >= shardCount || shardCount > PuzzleResultTable.MAXIMUM_SHARD_COUNT) {
+                printUsage();
+                System.exit(1);
+            }
+        }
+        int threads = 0;
+        int seconds = 0;
+        Mix mix = null;
+        if (load) {
+            try {
+                threads = Integer.parseInt(args[2]);
+                seconds = Integer.parseInt(args[3]);
+                mix = Mix.valueOf(args[4].toUpperCase());
+            } catch (IllegalArgumentException e) {
+                printUsage();
+                System.exit(1);
+            }
+            if (threads <= 0 || seconds <= 0) {
+                printUsage();
+                System.exit(1);
+            }
+        }
 
         System.out.println("Reading dictionary...");
         final List<String> words = Files.readAllLines(Paths.get(wordsFilename));
@@ -34,9 +121,32 @@ final class PuzzleBenchmark {
 
         System.out.println("Puzzle count: " + pm.puzzles.size());
 
+        if (load) {
+            AccessibilityEstimator estimator = null;
+            if (args.length > 5) {
+                System.out.println("Reading word frequencies...");
+                final Map<String, Double> frequencies =
+                        AbstractFrequencyAccessibilityEstimator.parseFrequencies(
+                                Files.newInputStream(Paths.get(args[5])));
+                estimator = new InverseLogarithmicFrequencyAccessibilityEstimator(frequencies,
+                        PuzzleGenerator.ESTIMATOR_COTAIL, PuzzleGenerator.ESTIMATOR_FALLOFF);
+            }
+            runLoadTest(pm, estimator, threads, seconds, mix);
+            return;
+        }
+
+        final int finalShard = shard;
+        final int finalShardCount = shardCount;
+        final List<Puzzle> puzzles = pm.puzzles.stream()
+                .filter(p -> PuzzleResultTable.shardOf(p.potVector, finalShardCount) == finalShard)
+                .collect(Collectors.toList());
+        if (sharded) {
+            System.out.printf("Shard %s/%s puzzle count: %s%n", shard, shardCount, puzzles.size());
+        }
+
         System.out.println("Solving puzzles...");
         final List<Set<String>> solutions =
-                pm.puzzles.stream()
+                puzzles.stream()
                         .parallel()  // only about a 15% speedup due to small dataset
                         .map(pm::solutionsTo)
                         .collect(Collectors.toList());
@@ -45,4 +155,158 @@ final class PuzzleBenchmark {
         System.out.println("Proof: " + solutions.hashCode());
     }
 
+    /**
+     * Run a load test and print its results to stdout.
+     *
+     * @param pm
+     *         the source of puzzles and solutions
+     * @param estimator
+     *         the estimator whose calls to time, or {@code null} to skip them
+     * @param threads
+     *         the number of worker threads
+     * @param seconds
+     *         how long the workers should run
+     * @param mix
+     *         how the workers should choose puzzles
+     */
+    static void runLoadTest(
+            PuzzleMaster pm, AccessibilityEstimator estimator, int threads, int seconds, Mix mix)
+            throws InterruptedException {
+        final List<Puzzle> puzzles = new ArrayList<>(pm.puzzles);
+        puzzles.sort(Comparator.<Puzzle>comparingInt(p -> p.potVector)
+                .thenComparingInt(p -> p.requiredVector));
+        Collections.shuffle(puzzles, new Random(0));
+        final double[] cumulativeWeights = cumulativeWeights(mix, puzzles.size());
+
+        System.out.printf("Running %s threads for %s seconds with %s mix...%n",
+                threads, seconds, mix.name().toLowerCase());
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch start = new CountDownLatch(1);
+        final List<Future<LatencyHistogram[]>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            futures.add(executor.submit(() -> {
+                final SplittableRandom rng = new SplittableRandom(seed);
+                final LatencyHistogram[] histograms = newHistograms();
+                start.await();
+                final long warmupDeadline = System.nanoTime() + WARMUP_SECONDS * 1_000_000_000L;
+                long proof = runUntil(warmupDeadline, pm, estimator, puzzles, cumulativeWeights,
+                        rng, newHistograms());
+                final long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+                proof += runUntil(deadline, pm, estimator, puzzles, cumulativeWeights,
+                        rng, histograms);
+                // Publish the proof so that none of the work can be optimized away.
+                if (proof == Long.MIN_VALUE) {
+                    System.out.println("Proof: " + proof);
+                }
+                return histograms;
+            }));
+        }
+        start.countDown();
+
+        final List<String> names = Arrays.asList("solutionsTo", "score", "accessibility");
+        final LatencyHistogram[] totals = newHistograms();
+        try {
+            for (Future<LatencyHistogram[]> future : futures) {
+                final LatencyHistogram[] histograms = future.get();
+                for (int i = 0; i < totals.length; i++) {
+                    totals[i].merge(histograms[i]);
+                }
+            }
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            executor.shutdown();
+        }
+
+        System.out.println("Done.");
+        for (int i = 0; i < totals.length; i++) {
+            if (totals[i].count() == 0) {
+                continue;
+            }
+            System.out.println(String.join("\t",
+                    "op=" + names.get(i),
+                    "threads=" + threads,
+                    "mix=" + mix.name().toLowerCase(),
+                    "count=" + totals[i].count(),
+                    "ops_per_sec=" + totals[i].count() / seconds,
+                    "p50_ns=" + totals[i].percentile(0.5),
+                    "p99_ns=" + totals[i].percentile(0.99),
+                    "p999_ns=" + totals[i].percentile(0.999),
+                    "max_ns=" + totals[i].maximum()));
+        }
+    }
+
+    /**
+     * @return one empty histogram for each operation timed by the load test
+     */
+    private static LatencyHistogram[] newHistograms() {
+        final LatencyHistogram[] result = new LatencyHistogram[3];
+        Arrays.setAll(result, i -> new LatencyHistogram());
+        return result;
+    }
+
+    /**
+     * Repeatedly choose a puzzle and time each operation on it until the deadline passes.
+     *
+     * @param histograms
+     *         the histograms in which to record latencies of {@code solutionsTo}, scoring, and
+     *         estimator calls, respectively
+     * @return a value depending on the results of every operation
+     */
+    private static long runUntil(
+            long deadline,
+            PuzzleMaster pm,
+            AccessibilityEstimator estimator,
+            List<Puzzle> puzzles,
+            double[] cumulativeWeights,
+            SplittableRandom rng,
+            LatencyHistogram[] histograms) {
+        final SolutionAggregate aggregate = new SolutionAggregate(pm.weights.size());
+        long proof = 0;
+        long now = System.nanoTime();
+        while (now < deadline) {
+            final Puzzle puzzle = puzzles.get(choose(cumulativeWeights, rng));
+            final Set<String> solutions = pm.solutionsTo(puzzle);
+            final long solved = System.nanoTime();
+            histograms[0].record(solved - now);
+            proof += pm.aggregateFor(puzzle, aggregate).score();
+            now = System.nanoTime();
+            histograms[1].record(now - solved);
+            if (estimator != null) {
+                proof += (long) estimator.accessibility(puzzle, solutions);
+                final long estimated = System.nanoTime();
+                histograms[2].record(estimated - now);
+                now = estimated;
+            }
+            proof += solutions.size();
+        }
+        return proof;
+    }
+
+    /**
+     * Compute the cumulative (unnormalized) probabilities of choosing each of {@code n} items.
+     */
+    static double[] cumulativeWeights(Mix mix, int n) {
+        final double[] result = new double[n];
+        double total = 0;
+        for (int k = 0; k < n; k++) {
+            total += mix == Mix.ZIPF ? 1.0 / (k + 1) : 1.0;
+            result[k] = total;
+        }
+        return result;
+    }
+
+    /**
+     * Choose an index at random with probability proportional to its weight.
+     *
+     * @param cumulativeWeights
+     *         as returned by {@link #cumulativeWeights(Mix, int)}
+     */
+    static int choose(double[] cumulativeWeights, SplittableRandom rng) {
+        final double target = rng.nextDouble() * cumulativeWeights[cumulativeWeights.length - 1];
+        final int index = Arrays.binarySearch(cumulativeWeights, target);
+        return Math.min(index >= 0 ? index + 1 : -index - 1, cumulativeWeights.length - 1);
+    }
+
 }
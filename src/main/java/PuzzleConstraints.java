@@ -0,0 +1,231 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Editorial rules that restrict which puzzles may be generated. A {@link PuzzleMaster} built
+ * with constraints never indexes words, pots, or puzzles that the constraints exclude, so
+ * restrictive rules shrink the work of generating puzzles as well as the result.
+ * </p>
+ * <p>
+ * There are two kinds of rules:
+ * </p>
+ * <ul>
+ * <li>
+ * banned combinations: a pot may not contain all the letters of any banned combination (a
+ * single banned letter is a combination of one letter); and
+ * </li>
+ * <li>
+ * banned required letters: a puzzle's required letter may not be any of these.
+ * </li>
+ * </ul>
+ * <p>
+ * A word that contains a banned combination can never be a solution to an allowed puzzle, since
+ * its letters are all in the pot, so such words are pruned from the dictionary as well.
+ * </p>
+ * <p>
+ * {@code PuzzleConstraints} are immutable; the {@code ban*} methods return new instances.
+ * </p>
+ */
+final class PuzzleConstraints {
+
+    /**
+     * Constraints that allow every puzzle.
+     */
+    static final PuzzleConstraints NONE = new PuzzleConstraints(new int[0], 0);
+
+    /**
+     * The character vectors of the banned combinations.
+     */
+    private final int[] bannedCombinations;
+
+    /**
+     * The character vector of all letters that may not be required.
+     */
+    private final int bannedRequiredLetters;
+
+    private PuzzleConstraints(int[] bannedCombinations, int bannedRequiredLetters) {
+        this.bannedCombinations = bannedCombinations;
+        this.bannedRequiredLetters = bannedRequiredLetters;
+    }
+
+    /**
+     * <p>
+     * Parse constraints from a comma-separated list of rules, each of which is one of:
+     * </p>
+     * <ul>
+     * <li>{@code -x}: ban the letter {@code x} from the pot;</li>
+     * <li>{@code -xyz}: ban pots that contain all of the letters {@code x}, {@code y}, and
+     * {@code z};</li>
+     * <li>{@code !xyz}: ban each of {@code x}, {@code y}, and {@code z} as the required
+     * letter.</li>
+     * </ul>
+     * <p>
+     * For instance, {@code "-s,-er,!aeiou"} bans {@code s}, bans {@code e} and {@code r}
+     * together, and requires a consonant as the required letter. The empty string yields
+     * {@link #NONE}.
+     * </p>
+     *
+     * @param spec
+     *         a constraint specification as described above
+     * @return the parsed constraints
+     * @throws IllegalArgumentException
+     *         if the specification is malformed
+     */
+    static PuzzleConstraints parse(String spec) {
+        PuzzleConstraints result = NONE;
+        for (String rule : spec.split(",")) {
+            final String trimmed = rule.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            final String letters = trimmed.substring(1);
+            if (letters.isEmpty() || !letters.chars().allMatch(c -> c >= 'a' && c <= 'z')) {
+                throw new IllegalArgumentException("invalid letters in rule: " + trimmed);
+            }
+            switch (trimmed.charAt(0)) {
+                case '-':
+                    result = result.banCombination(letters);
+                    break;
+                case '!':
+                    result = result.banRequiredLetters(letters);
+                    break;
+                default:
+                    throw new IllegalArgumentException("invalid rule: " + trimmed);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ban each of the given letters from appearing in any pot.
+     *
+     * @param letters
+     *         lowercase letters to ban
+     * @return new constraints that also ban the given letters
+     */
+    PuzzleConstraints banLetters(String letters) {
+        PuzzleConstraints result = this;
+        for (char c : letters.toCharArray()) {
+            result = result.banCombination(String.valueOf(c));
+        }
+        return result;
+    }
+
+    /**
+     * Ban pots that contain all of the given letters.
+     *
+     * @param letters
+     *         lowercase letters that may not all appear in one pot
+     * @return new constraints that also ban the given combination
+     */
+    PuzzleConstraints banCombination(String letters) {
+        final int[] combinations =
+                Arrays.copyOf(bannedCombinations, bannedCombinations.length + 1);
+        combinations[bannedCombinations.length] = Puzzle.characterVector(letters.toCharArray());
+        return new PuzzleConstraints(combinations, bannedRequiredLetters);
+    }
+
+    /**
+     * Ban each of the given letters from being the required letter.
+     *
+     * @param letters
+     *         lowercase letters that may not be required
+     * @return new constraints that also ban the given required letters
+     */
+    PuzzleConstraints banRequiredLetters(String letters) {
+        return new PuzzleConstraints(
+                bannedCombinations,
+                bannedRequiredLetters | Puzzle.characterVector(letters.toCharArray()));
+    }
+
+    /**
+     * Check whether a set of letters may appear together in a pot. This is also the test for
+     * whether a word may be a solution to any allowed puzzle.
+     *
+     * @param vector
+     *         the character vector of a pot or a word
+     * @return {@code false} if the letters contain a banned combination
+     */
+    boolean allowsLetters(int vector) {
+        for (int combination : bannedCombinations) {
+            if ((vector & combination) == combination) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check whether a puzzle is allowed.
+     *
+     * @param puzzle
+     *         a puzzle
+     * @return whether the puzzle's pot and required letters are allowed
+     */
+    boolean allows(Puzzle puzzle) {
+        return (puzzle.requiredVector & bannedRequiredLetters) == 0
+                && allowsLetters(puzzle.potVector);
+    }
+
+    /**
+     * Compute the letters of a pot that may be required.
+     *
+     * @param pot
+     *         the character vector of an allowed pot
+     * @return the subvector of {@code pot} of letters that are not banned as required letters
+     */
+    int allowedRequiredLetters(int pot) {
+        return pot & ~bannedRequiredLetters;
+    }
+
+    /**
+     * <p>
+     * Describe these constraints in the format read by {@link #parse(String)}, in a canonical
+     * form: constraints that allow exactly the same puzzles have the same canonical spec,
+     * whatever order their rules were given in.
+     * </p>
+     * <p>
+     * Banned combinations are listed in increasing order of character vector, omitting any that
+     * contain another banned combination (and so ban nothing more), followed by the banned
+     * required letters, if any.
+     * </p>
+     *
+     * @return the canonical specification, which is empty for {@link #NONE}
+     */
+    String canonicalSpec() {
+        final int[] sorted = bannedCombinations.clone();
+        Arrays.sort(sorted);
+        final List<String> rules = new ArrayList<>();
+        for (int i = 0; i < sorted.length; i++) {
+            boolean redundant = false;
+            for (int j = 0; j < sorted.length && !redundant; j++) {
+                // A combination is redundant if it contains another distinct combination, or
+                // if it repeats an earlier one.
+                redundant = (sorted[i] & sorted[j]) == sorted[j]
+                        && (sorted[i] != sorted[j] || j < i);
+            }
+            if (!redundant) {
+                rules.add("-" + Puzzle.characterUnvector(sorted[i]));
+            }
+        }
+        if (bannedRequiredLetters != 0) {
+            rules.add("!" + Puzzle.characterUnvector(bannedRequiredLetters));
+        }
+        return String.join(",", rules);
+    }
+
+    @Override
+    public String toString() {
+        final StringBuilder sb = new StringBuilder("PuzzleConstraints{");
+        for (int combination : bannedCombinations) {
+            sb.append('-').append(Puzzle.characterUnvector(combination)).append(',');
+        }
+        if (bannedRequiredLetters != 0) {
+            sb.append('!').append(Puzzle.characterUnvector(bannedRequiredLetters));
+        }
+        return sb.append('}').toString();
+    }
+
+}
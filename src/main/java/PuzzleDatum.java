@@ -2,11 +2,13 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Data and metadata about a puzzle, used to train a model to estimate the good/excellent/genius
@@ -14,21 +16,74 @@ import java.util.stream.Collectors;
  */
 final class PuzzleDatum {
     final Puzzle puzzle;
+
+    /**
+     * An immutable collection of all solutions to the puzzle.
+     */
     final Collection<String> solutions;
+
+    /**
+     * The number of solutions to the puzzle.
+     */
+    final int solutionCount;
+
+    /**
+     * The {@linkplain Puzzle#score(Collection) score} of the solutions to the puzzle.
+     */
+    final int score;
+
     final int good;
     final int excellent;
     final int genius;
 
+    /**
+     * Create a datum. If {@code solutions} came from {@link PuzzleMaster#compactSolutionsTo},
+     * it is shared; otherwise, it is copied into a compact immutable list.
+     *
+     * @param puzzle
+     *         the puzzle
+     * @param solutions
+     *         all solutions to the puzzle
+     * @param good
+     *         the minimum number of points to earn a rating of "good"
+     * @param excellent
+     *         the minimum number of points to earn a rating of "excellent"
+     * @param genius
+     *         the minimum number of points to earn a rating of "genius"
+     */
     PuzzleDatum(
             Puzzle puzzle, Collection<? extends String> solutions,
             int good, int excellent, int genius) {
         this.puzzle = puzzle;
-        this.solutions = new ArrayList<>(solutions);
+        this.solutions = solutions instanceof BucketSolutionSet ?
+                (BucketSolutionSet) solutions :
+                Collections.unmodifiableList(Arrays.asList(solutions.toArray(new String[0])));
+        this.solutionCount = this.solutions.size();
+        this.score = Puzzle.score(this.solutions);
         this.good = good;
         this.excellent = excellent;
         this.genius = genius;
     }
 
+    /**
+     * Create a set of {@code PuzzleDatum} objects, solving each puzzle as its row is read. See
+     * {@link #createDataset(InputStream, Function, boolean)}.
+     *
+     * @param inputStream
+     *         a stream containing a CSV file as described there
+     * @param solver
+     *         a function to generate all valid solutions to a given puzzle
+     * @return a list of {@code PuzzleData} objects, whose puzzles and ratings are drawn from the
+     * given CSV file and whose solutions are computed by the given function
+     * @throws IOException
+     *         if thrown while reading from the input stream
+     */
+    static List<PuzzleDatum> createDataset(
+            InputStream inputStream,
+            Function<Puzzle, ? extends Collection<String>> solver) throws IOException {
+        return createDataset(inputStream, solver, false);
+    }
+
     /**
      * <p>
      * Create a set of {@code PuzzleDatum} objects by reading the puzzles and rating thresholds
@@ -59,33 +114,69 @@ final class PuzzleDatum {
      * Whitespace-only lines and lines whose first non-whitespace character is a hash ({@code #})
      * are ignored. Extraneous columns will be ignored.
      * </p>
+     * <p>
+     * In parallel mode, all rows are read and parsed first, and then the puzzles are solved in
+     * parallel on the common {@link java.util.concurrent.ForkJoinPool}; the solver must then be
+     * safe to call from multiple threads. In either mode, the result is in the order of the rows
+     * in the input.
+     * </p>
      *
      * @param inputStream
      *         a stream containing a CSV file described above
      * @param solver
      *         a function to generate all valid solutions to a given puzzle
+     * @param parallel
+     *         whether to solve the puzzles in parallel after reading the whole input
      * @return a list of {@code PuzzleData} objects, whose puzzles and ratings are drawn from the
      * given CSV file and whose solutions are computed by the given function
      * @throws IOException
      *         if thrown while reading from the input stream
+     * @throws IllegalArgumentException
+     *         if a row has too few columns or a non-integer threshold; in parallel mode, this is
+     *         detected before any puzzle is solved
      */
     static List<PuzzleDatum> createDataset(
             InputStream inputStream,
-            Function<Puzzle, ? extends Collection<String>> solver) throws IOException {
-        return new BufferedReader(new InputStreamReader(inputStream)).lines()
-                .filter(line -> !line.trim().isEmpty() && !line.trim().startsWith("#"))
-                .map(line -> {
-                    final String[] parts = line.trim().split(",");
-                    final int requiredVector = Puzzle.characterVector(parts[0].toCharArray());
-                    final int optionalVector = Puzzle.characterVector(parts[1].toCharArray());
-                    final int potVector = requiredVector | optionalVector;
-                    final Puzzle puzzle = new Puzzle(potVector, requiredVector);
-                    final Collection<String> solutions = solver.apply(puzzle);
-                    final int goodThreshold = Integer.parseInt(parts[2]);
-                    final int excellentThreshold = Integer.parseInt(parts[3]);
-                    final int geniusThreshold = Integer.parseInt(parts[4]);
-                    return new PuzzleDatum(
-                            puzzle, solutions, goodThreshold, excellentThreshold, geniusThreshold);
-                }).collect(Collectors.toList());
+            Function<Puzzle, ? extends Collection<String>> solver,
+            boolean parallel) throws IOException {
+        final Stream<String> lines = new BufferedReader(new InputStreamReader(inputStream)).lines()
+                .filter(line -> !line.trim().isEmpty() && !line.trim().startsWith("#"));
+        // Rows are parsed in input order, so that a malformed row fails the same way every time.
+        final Stream<Row> rows = lines.map(Row::new);
+        return (parallel ? rows.collect(Collectors.toList()).parallelStream() : rows)
+                .map(row -> new PuzzleDatum(row.puzzle, solver.apply(row.puzzle),
+                        row.goodThreshold, row.excellentThreshold, row.geniusThreshold))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * The puzzle and rating thresholds parsed from one row of a dataset file.
+     */
+    private static final class Row {
+        final Puzzle puzzle;
+        final int goodThreshold;
+        final int excellentThreshold;
+        final int geniusThreshold;
+
+        /**
+         * @throws IllegalArgumentException
+         *         if the line has too few columns or a threshold is not an integer
+         */
+        Row(String line) {
+            final String[] parts = line.trim().split(",");
+            if (parts.length < 5) {
+                throw new IllegalArgumentException("Too few columns in row: '" + line + "'");
+            }
+            final int requiredVector = Puzzle.characterVector(parts[0].toCharArray());
+            final int optionalVector = Puzzle.characterVector(parts[1].toCharArray());
+            puzzle = new Puzzle(requiredVector | optionalVector, requiredVector);
+            try {
+                goodThreshold = Integer.parseInt(parts[2]);
+                excellentThreshold = Integer.parseInt(parts[3]);
+                geniusThreshold = Integer.parseInt(parts[4]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid threshold in row: '" + line + "'", e);
+            }
+        }
     }
 }
@@ -0,0 +1,341 @@
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * Entry point to solve and rate every puzzle and export the results in bulk, for consumption by
+ * other programs.
+ * </p>
+ * <p>
+ * Puzzles are processed in chunks of {@value #CHUNK_SIZE}: each chunk is solved and rated in
+ * parallel and then written out before the next chunk is started, so memory usage beyond the
+ * {@link PuzzleMaster} itself is bounded by the chunk size.
+ * </p>
+ * <p>
+ * If the output file name ends in {@code .json} or {@code .jsonl}, the output is JSON lines: the
+ * first line is an object {@code {"words":[...]}} listing all words in order of word ID, and
+ * each subsequent line describes one puzzle, like (wrapped here)
+ * </p>
+ * <pre>
+ * {"required":"g","optional":"cenorv","score":24,
+ *  "good":8,"excellent":14,"genius":20,"solutions":[...]}
+ * </pre>
+ * <p>
+ * where the solutions are word IDs. Otherwise, the output is binary, in the following format,
+ * where all integers are 32-bit big-endian (the default byte order for a {@link
+ * java.nio.ByteBuffer}) so that the file can be memory-mapped directly (see
+ * {@link MappedPuzzleExport}):
+ * </p>
+ * <ol>
+ * <li>header: {@link #MAGIC}, {@link #VERSION}, word count <i>w</i>, puzzle count <i>p</i></li>
+ * <li>word offsets: <i>w</i> + 1 integers, the byte offset of each word within the word data,
+ * followed by the length of the word data</li>
+ * <li>word data: the ASCII bytes of each word, concatenated in order of word ID, padded with zero
+ * bytes to a multiple of four bytes</li>
+ * <li>puzzle table: <i>p</i> records of {@value #RECORD_INTS} integers each: pot vector, required
+ * vector, solution count, score, "good", "excellent", and "genius" thresholds, and the index into
+ * the solution table of the puzzle's first solution</li>
+ * <li>solution table: the word IDs of each puzzle's solutions, in increasing order, concatenated
+ * in the order of the puzzle table</li>
+ * </ol>
+ */
+final class PuzzleExporter {
+
+    /**
+     * The first integer of a binary export file: {@code "SBEX"} in ASCII.
+     */
+    static final int MAGIC = 0x53424558;
+
+    /**
+     * The version of the binary format described in the class documentation.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The number of integers in each record of the puzzle table.
+     */
+    static final int RECORD_INTS = 8;
+
+    /**
+     * The number of puzzles solved and rated in parallel before being written out.
+     */
+    static final int CHUNK_SIZE = 4096;
+
+    static void printUsage() {
+        final List<String> args = Arrays.asList(
+                PuzzleExporter.class.getName(),
+                "<words_file>",
+                "<frequencies_file>",
+                "<ratings_file>",
+                "<output_file>");
+        System.out.println("Usage: java " + args.stream().collect(Collectors.joining(" ")));
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 4) {
+            printUsage();
+            System.exit(1);
+        }
+        final String wordsFilename = args[0];
+        final String frequenciesFilename = args[1];
+        final String ratingsFilename = args[2];
+        final Path outPath = Paths.get(args[3]);
+
+        System.out.println("Reading dictionary...");
+        final List<String> words = Files.readAllLines(Paths.get(wordsFilename));
+
+        System.out.println("Reading word frequencies...");
+        final Map<String, Double> frequencies =
+                AbstractFrequencyAccessibilityEstimator.parseFrequencies(
+                        Files.newInputStream(Paths.get(frequenciesFilename)));
+
+        final AbstractFrequencyAccessibilityEstimator estimator =
+                new InverseLogarithmicFrequencyAccessibilityEstimator(frequencies,
+                        PuzzleGenerator.ESTIMATOR_COTAIL, PuzzleGenerator.ESTIMATOR_FALLOFF);
+
+        System.out.println("Compiling generic puzzle data...");
+        final PuzzleMaster pm = new PuzzleMaster(
+                words, Collections.singletonList(estimator::wordWeight));
+
+        System.out.println("Training models for good/excellent/genius levels...");
+        final RatingModel ratingModel = RatingModel.train(
+                PuzzleDatum.createDataset(
+                        Files.newInputStream(Paths.get(ratingsFilename)),
+                        pm::compactSolutionsTo,
+                        true),
+                estimator);
+
+        System.out.printf("Exporting %d puzzles to '%s'...%n", pm.puzzles.size(), outPath);
+        final String name = outPath.getFileName().toString().toLowerCase(Locale.US);
+        if (name.endsWith(".json") || name.endsWith(".jsonl")) {
+            writeJsonLines(pm, ratingModel, outPath);
+        } else {
+            writeBinary(pm, ratingModel, outPath);
+        }
+        System.out.println("Done.");
+    }
+
+    /**
+     * Solve a puzzle and compute its puzzle-table record, except for the index of its first
+     * solution. The accessibility of a puzzle is taken to be the first weight sum of its
+     * aggregate.
+     *
+     * @param pm
+     *         the source of the puzzle's solutions
+     * @param ratingModel
+     *         the model with which to rate the puzzle
+     * @param puzzle
+     *         the puzzle to describe
+     * @param record
+     *         the array into which to write the record
+     * @param offset
+     *         the index in {@code record} of the record's first integer
+     * @return the word IDs of the puzzle's solutions, in increasing order
+     */
+    private static int[] solve(
+            PuzzleMaster pm, RatingModel ratingModel, Puzzle puzzle, int[] record, int offset) {
+        final SolutionAggregate aggregate = pm.aggregateFor(puzzle);
+        final double accessibility = aggregate.weightSum(0);
+        record[offset] = puzzle.potVector;
+        record[offset + 1] = puzzle.requiredVector;
+        record[offset + 2] = aggregate.wordCount;
+        record[offset + 3] = aggregate.score();
+        record[offset + 4] = ratingModel.good(accessibility);
+        record[offset + 5] = ratingModel.excellent(accessibility);
+        record[offset + 6] = ratingModel.genius(accessibility);
+        return pm.solutionIdsTo(puzzle);
+    }
+
+    /**
+     * <p>
+     * Write all puzzles in the binary format described in the class documentation.
+     * </p>
+     * <p>
+     * The sizes of the header, word tables, and puzzle table are known in advance, so each chunk
+     * of puzzles is solved once and its records and solution IDs are written at their own
+     * positions in the file.
+     * </p>
+     *
+     * @param pm
+     *         a {@code PuzzleMaster} whose first weight is the accessibility word weight
+     * @param ratingModel
+     *         the model with which to rate each puzzle
+     * @param outPath
+     *         the file to write
+     * @throws IOException
+     *         if thrown while writing the file
+     * @throws IllegalStateException
+     *         if the word data or the solution table is too large for 32-bit offsets
+     */
+    static void writeBinary(PuzzleMaster pm, RatingModel ratingModel, Path outPath)
+            throws IOException {
+        final List<Puzzle> puzzles = pm.puzzles;
+        final int wordCount = pm.words.size();
+        try (FileChannel channel = FileChannel.open(outPath,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            // Not closed here: closing it would close the channel, which is still needed.
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel), PuzzleWriter.BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(wordCount);
+            out.writeInt(puzzles.size());
+
+            long byteOffset = 0;
+            for (int id = 0; id < wordCount; id++) {
+                out.writeInt(checkOffset(byteOffset, "word data"));
+                byteOffset += pm.word(id).length();
+            }
+            out.writeInt(checkOffset(byteOffset, "word data"));
+            for (int id = 0; id < wordCount; id++) {
+                out.writeBytes(pm.word(id));
+            }
+            for (long i = byteOffset; i % 4 != 0; i++) {
+                out.writeByte(0);
+            }
+            out.flush();
+
+            long recordPosition = channel.position();
+            long solutionPosition = recordPosition + 4L * RECORD_INTS * puzzles.size();
+            long solutionStart = 0;
+            for (int chunk = 0; chunk < puzzles.size(); chunk += CHUNK_SIZE) {
+                final int base = chunk;
+                final int size = Math.min(CHUNK_SIZE, puzzles.size() - base);
+                final int[] records = new int[size * RECORD_INTS];
+                final int[][] solutionIds = new int[size][];
+                IntStream.range(0, size).parallel().forEach(i -> solutionIds[i] = solve(
+                        pm, ratingModel, puzzles.get(base + i), records, i * RECORD_INTS));
+                int chunkSolutionCount = 0;
+                for (int i = 0; i < size; i++) {
+                    records[i * RECORD_INTS + 7] = checkOffset(solutionStart, "solution table");
+                    solutionStart += solutionIds[i].length;
+                    chunkSolutionCount += solutionIds[i].length;
+                }
+
+                final ByteBuffer recordBuffer = ByteBuffer.allocate(4 * records.length);
+                recordBuffer.asIntBuffer().put(records);
+                recordPosition = writeAt(channel, recordBuffer, recordPosition);
+                final ByteBuffer solutionBuffer = ByteBuffer.allocate(4 * chunkSolutionCount);
+                for (int[] ids : solutionIds) {
+                    for (int id : ids) {
+                        solutionBuffer.putInt(id);
+                    }
+                }
+                solutionBuffer.flip();
+                solutionPosition = writeAt(channel, solutionBuffer, solutionPosition);
+            }
+        }
+    }
+
+    /**
+     * @return {@code offset}, if it fits in the 32-bit offsets of the binary format
+     * @throws IllegalStateException
+     *         if it does not
+     */
+    private static int checkOffset(long offset, String table) {
+        if (offset > Integer.MAX_VALUE) {
+            throw new IllegalStateException(
+                    "the " + table + " is too large for the binary export format");
+        }
+        return (int) offset;
+    }
+
+    /**
+     * Write all of a buffer to a channel at the given position.
+     *
+     * @return the position just after the written bytes
+     */
+    private static long writeAt(FileChannel channel, ByteBuffer buffer, long position)
+            throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+        return position;
+    }
+
+    /**
+     * Write all puzzles in the JSON lines format described in the class documentation.
+     *
+     * @param pm
+     *         a {@code PuzzleMaster} whose first weight is the accessibility word weight
+     * @param ratingModel
+     *         the model with which to rate each puzzle
+     * @param outPath
+     *         the file to write
+     * @throws IOException
+     *         if thrown while writing the file
+     */
+    static void writeJsonLines(PuzzleMaster pm, RatingModel ratingModel, Path outPath)
+            throws IOException {
+        final List<Puzzle> puzzles = pm.puzzles;
+        try (Writer out = new BufferedWriter(
+                Files.newBufferedWriter(outPath, StandardCharsets.UTF_8),
+                PuzzleWriter.BUFFER_SIZE)) {
+            out.write("{\"words\":[");
+            for (int id = 0; id < pm.words.size(); id++) {
+                if (id > 0) {
+                    out.write(',');
+                }
+                out.write('"');
+                out.write(pm.word(id));
+                out.write('"');
+            }
+            out.write("]}\n");
+
+            for (int chunk = 0; chunk < puzzles.size(); chunk += CHUNK_SIZE) {
+                final List<String> lines = puzzles
+                        .subList(chunk, Math.min(chunk + CHUNK_SIZE, puzzles.size()))
+                        .parallelStream()
+                        .map(puzzle -> jsonLine(pm, ratingModel, puzzle))
+                        .collect(Collectors.toList());
+                for (String line : lines) {
+                    out.write(line);
+                }
+            }
+        }
+    }
+
+    private static String jsonLine(PuzzleMaster pm, RatingModel ratingModel, Puzzle puzzle) {
+        final int[] record = new int[RECORD_INTS];
+        final int[] ids = solve(pm, ratingModel, puzzle, record, 0);
+        final StringBuilder sb = new StringBuilder();
+        sb.append("{\"required\":\"")
+                .append(Puzzle.characterUnvector(puzzle.requiredVector))
+                .append("\",\"optional\":\"")
+                .append(Puzzle.characterUnvector(puzzle.potVector & ~puzzle.requiredVector))
+                .append("\",\"score\":").append(record[3])
+                .append(",\"good\":").append(record[4])
+                .append(",\"excellent\":").append(record[5])
+                .append(",\"genius\":").append(record[6])
+                .append(",\"solutions\":[");
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(ids[i]);
+        }
+        sb.append("]}\n");
+        return sb.toString();
+    }
+
+}
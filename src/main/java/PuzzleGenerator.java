@@ -1,8 +1,6 @@
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -11,26 +9,68 @@ import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Random;
-import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.Function;
-import java.util.function.IntFunction;
+import java.util.function.ToDoubleFunction;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 final class PuzzleGenerator {
 
+    // The following constants were chosen by inspection of the frequencies file for the word
+    // list provided by the Ubuntu wamerican package,version 7.1 - 1. This frequency file is
+    // available in <repo>/data/frequencies.
+    static final double ESTIMATOR_COTAIL = 6;
+    static final double ESTIMATOR_FALLOFF = 0.08;
+
     static void printUsage() {
         final List<String> args = Arrays.asList(
                 PuzzleGenerator.class.getName(),
+                "[--sample]",
+                "[--cache <directory> [--shard <i>/<n>]]",
                 "<words_file>",
                 "<frequencies_file>",
                 "<ratings_file>",
                 "<n_weeks>",
-                "<output_file>");
+                "<output_file>",
+                "[<constraints>]");
         System.out.println("Usage: java " + args.stream().collect(Collectors.joining(" ")));
     }
 
     public static void main(String[] args) throws IOException {
-        if (args.length != 5) {
+        boolean sample = false;
+        Path cacheDirectory = null;
+        int shard = 0;
+        int shardCount = 1;
+        int firstPositional = 0;
+        while (firstPositional < args.length && args[firstPositional].startsWith("--")) {
+            if (args[firstPositional].equals("--sample")) {
+                sample = true;
+                firstPositional++;
+            } else if (args[firstPositional].equals("--cache")
+                    && firstPositional + 1 < args.length) {
+                cacheDirectory = Paths.get(args[firstPositional + 1]);
+                firstPositional += 2;
+            } else if (args[firstPositional].equals("--shard")
+                    && firstPositional + 1 < args.length
+                    && args[firstPositional + 1].matches("[0-9]+/[0-9]+")) {
+                final String[] parts = args[firstPositional + 1].split("/");
+                shard = Integer.parseInt(parts[0]);
+                shardCount = Integer.parseInt(parts[1]);
+                firstPositional += 2;
+            } else {
+                printUsage();
+                System.exit(1);
+            }
+        }
+        args = Arrays.copyOfRange(args, firstPositional, args.length);
+        // A shard's results are only useful once merged through the cache.
+        final boolean validShard = shardCount == 1 && shard == 0
+                || cacheDirectory != null && !sample && shard < shardCount
+                && shardCount <= PuzzleResultTable.MAXIMUM_SHARD_COUNT;
+        if (!validShard || (args.length != 5 && args.length != 6)) {
             printUsage();
             System.exit(1);
         }
@@ -39,148 +79,216 @@ final class PuzzleGenerator {
         final String ratingsFilename = args[2];
         final int nWeeks = Integer.parseInt(args[3]);
         final String outputFilename = args[4];
+        final PuzzleConstraints constraints =
+                args.length > 5 ? PuzzleConstraints.parse(args[5]) : PuzzleConstraints.NONE;
         final Random rng = new Random(0);
 
+        // Sampling solves too few puzzles to be worth caching.
+        String key = null;
+        Path cacheFile = null;
+        PuzzleResultTable cachedResults = null;
+        if (cacheDirectory != null && !sample) {
+            key = PuzzleResultTable.cacheKey(
+                    Arrays.asList(
+                            Paths.get(wordsFilename),
+                            Paths.get(frequenciesFilename),
+                            Paths.get(ratingsFilename)),
+                    String.format("%s(cotail=%s, falloff=%s), constraints=%s",
+                            InverseLogarithmicFrequencyAccessibilityEstimator.class.getName(),
+                            ESTIMATOR_COTAIL, ESTIMATOR_FALLOFF, constraints.canonicalSpec()));
+            Files.createDirectories(cacheDirectory);
+            cacheFile = cacheDirectory.resolve(key + ".bin");
+            // A shard is always computed from scratch.
+            if (shardCount == 1 && Files.exists(cacheFile)) {
+                System.out.printf("Loading cached results from '%s'...%n", cacheFile);
+                try {
+                    cachedResults = PuzzleResultTable.map(cacheFile);
+                } catch (IOException | IllegalArgumentException e) {
+                    // The file will be overwritten with freshly computed results.
+                    System.out.printf("Ignoring unreadable cached results: %s%n", e);
+                }
+            }
+            if (shardCount == 1 && cachedResults == null) {
+                cachedResults = mergeShards(cacheDirectory, key);
+                if (cachedResults != null) {
+                    System.out.printf("Caching merged results to '%s'...%n", cacheFile);
+                    cachedResults.writeTo(cacheFile);
+                }
+            }
+        }
+
         System.out.println("Reading dictionary...");
         final List<String> words = Files.readAllLines(Paths.get(wordsFilename));
 
-        System.out.println("Compiling generic puzzle data...");
-        final PuzzleMaster pm = new PuzzleMaster(words);
-
-        System.out.println("Reading word frequencies...");
-        final Map<String, Double> frequencies =
-                AbstractFrequencyAccessibilityEstimator.parseFrequencies(
-                        Files.newInputStream(Paths.get(frequenciesFilename)));
-
-        // The following constants were chosen by inspection of the frequencies file for the word
-        // list provided by the Ubuntu wamerican package,version 7.1 - 1. This frequency file is
-        // available in <repo>/data/frequencies.
-        final AccessibilityEstimator estimator =
-                new InverseLogarithmicFrequencyAccessibilityEstimator(frequencies, 6, 0.08);
-
-        System.out.println("Training models for good/excellent/genius levels...");
-        final List<PuzzleDatum> trainingData = PuzzleDatum.createDataset(
-                Files.newInputStream(Paths.get(ratingsFilename)),
-                pm::solutionsTo);
-        final SimpleOrdinaryLinearRegression<PuzzleDatum> goodRatingModel =
-                new SimpleOrdinaryLinearRegression<>(
-                        datum -> estimator.accessibility(datum.puzzle, datum.solutions),
-                        datum -> datum.good);
-        goodRatingModel.train(trainingData);
-        final SimpleOrdinaryLinearRegression<PuzzleDatum> perLevelDeltaModel =
-                new SimpleOrdinaryLinearRegression<>(
-                        datum -> estimator.accessibility(datum.puzzle, datum.solutions),
-                        datum -> 0.5 * (datum.genius - datum.good));
-        perLevelDeltaModel.train(trainingData);
-
-        System.out.println("Solving all puzzles...");
-        final Map<Puzzle, Set<String>> solutions = pm.puzzles.stream().collect(
-                Collectors.toMap(Function.identity(), pm::solutionsTo));
+        final PuzzleMaster pm;
+        final RatingModel ratingModel;
+        if (cachedResults != null) {
+            // Solutions are still needed for the chosen puzzles, but accessibilities are not.
+            System.out.println("Compiling generic puzzle data...");
+            pm = new PuzzleMaster(words, constraints, Collections.emptyList());
+            ratingModel = cachedResults.ratingModel;
+        } else {
+            System.out.println("Reading word frequencies...");
+            final Map<String, Double> frequencies =
+                    AbstractFrequencyAccessibilityEstimator.parseFrequencies(
+                            Files.newInputStream(Paths.get(frequenciesFilename)));
+            final AbstractFrequencyAccessibilityEstimator estimator =
+                    new InverseLogarithmicFrequencyAccessibilityEstimator(
+                            frequencies, ESTIMATOR_COTAIL, ESTIMATOR_FALLOFF);
+
+            System.out.println("Compiling generic puzzle data...");
+            pm = new PuzzleMaster(
+                    words, constraints, Collections.singletonList(estimator::wordWeight));
+
+            System.out.println("Training models for good/excellent/genius levels...");
+            // Historical puzzles need not satisfy our constraints, so they must be solved
+            // against the full dictionary.
+            final PuzzleMaster trainingPm =
+                    constraints == PuzzleConstraints.NONE ? pm : new PuzzleMaster(words);
+            final List<PuzzleDatum> trainingData = PuzzleDatum.createDataset(
+                    Files.newInputStream(Paths.get(ratingsFilename)),
+                    trainingPm::compactSolutionsTo,
+                    true);
+            ratingModel = RatingModel.train(trainingData, estimator);
+        }
+
+        if (shardCount > 1) {
+            final Path shardFile = cacheDirectory.resolve(
+                    String.format("%s.shard-%s-of-%s.bin", key, shard, shardCount));
+            System.out.printf("Aggregating puzzles in shard %s/%s...%n", shard, shardCount);
+            PuzzleResultTable.build(pm, ratingModel, aggregate -> aggregate.weightSum(0),
+                    shard, shardCount).writeTo(shardFile);
+            System.out.printf("Wrote shard results to '%s'.%n", shardFile);
+            return;
+        }
 
         // Choose only puzzles with a reasonable maximum possible score.
         final int scoreLowerBound = 14;
         final int scoreUpperBound = 28;
-        System.out.printf("Selecting puzzles with scores between %s and %s, inclusive...%n",
-                scoreLowerBound, scoreUpperBound);
-        final List<Puzzle> puzzlesInScoreRange = pm.puzzles.stream()
-                .filter(puzzle -> {
-                    final int score = Puzzle.score(solutions.get(puzzle));
-                    return scoreLowerBound <= score && score <= scoreUpperBound;
-                })
-                .collect(Collectors.toList());
-        System.out.println("--- Puzzles in score range: " + puzzlesInScoreRange.size());
-
-        System.out.println("Selecting at most one puzzle per pot...");
-        final List<Puzzle> nonOverlappingPuzzles = puzzlesInScoreRange
-                .stream()
-                .collect(Collectors.groupingBy(puzzle -> puzzle.potVector))
-                .values().stream()
-                .map(list -> list.get(rng.nextInt(list.size())))
-                .collect(Collectors.toCollection(ArrayList::new));
-        System.out.println("--- Puzzles in pool: " + nonOverlappingPuzzles.size());
-
-        final List<Puzzle> puzzles = nonOverlappingPuzzles;
-        System.out.println("Sorting puzzles by decreasing accessibility...");
-        puzzles.sort(Comparator.comparingDouble(
-                (Puzzle puzzle) -> estimator.accessibility(puzzle, solutions.get(puzzle))
-        ).reversed());
-
-        System.out.println("Randomizing order within tripartitions...");
-        final int bigStep = puzzles.size() / 3;
-        Collections.shuffle(puzzles.subList(0, bigStep), rng);
-        Collections.shuffle(puzzles.subList(bigStep, 2 * bigStep), rng);
-        Collections.shuffle(puzzles.subList(2 * bigStep, puzzles.size()), rng);
-
-        System.out.println("Estimating level ratings...");
-        final Map<Puzzle, Integer> goodLevels = puzzles.stream().collect(Collectors.toMap(
-                Function.identity(),
-                puzzle -> (int) Math.round(goodRatingModel.predict(
-                        estimator.accessibility(puzzle, solutions.get(puzzle))))));
-        final Map<Puzzle, Integer> perLevelDeltas = puzzles.stream().collect(Collectors.toMap(
-                Function.identity(),
-                puzzle -> (int) Math.round(perLevelDeltaModel.predict(
-                        estimator.accessibility(puzzle, solutions.get(puzzle))))));
-
-        final File outFile = new File(outputFilename);
-        System.out.printf("Writing TeX to '%s'...%n", outFile.getPath());
-        final Function<Puzzle, PuzzleDatum> formDatum = (puzzle) ->
-                new PuzzleDatum(
-                        puzzle,
-                        solutions.get(puzzle),
-                        goodLevels.get(puzzle),
-                        goodLevels.get(puzzle) + perLevelDeltas.get(puzzle),
-                        goodLevels.get(puzzle) + 2 * perLevelDeltas.get(puzzle));
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outFile))) {
-            writer.write("\\documentclass[12pt,letterpaper]{article}\n\n");
-            writer.write("\\usepackage{spellingbee}\n\n");
-            writer.write("\\begin{document}\n\n");
-            for (int i = 0; i < nWeeks && i < bigStep; i++) {
-                final Puzzle easy = puzzles.get(i);
-                final Puzzle medium = puzzles.get(i + bigStep);
-                final Puzzle hard = puzzles.get(i + 2 * bigStep);
-                writer.write(pageTeX(
+        // The estimator's word weight is the only weight given to the PuzzleMaster, so the
+        // accessibility of a puzzle is its first weight sum.
+        final ToDoubleFunction<Puzzle> accessibility;
+        final List<List<Puzzle>> terciles;
+        if (sample) {
+            System.out.printf("Sampling puzzles with scores between %s and %s, inclusive...%n",
+                    scoreLowerBound, scoreUpperBound);
+            accessibility = puzzle -> pm.aggregateFor(puzzle).weightSum(0);
+            terciles = new PuzzleSampler(pm, aggregate -> aggregate.weightSum(0))
+                    .sampleByTercile(nWeeks, scoreLowerBound, scoreUpperBound, rng);
+        } else {
+            final PuzzleResultTable results;
+            if (cachedResults != null) {
+                results = cachedResults;
+            } else {
+                System.out.println("Aggregating all puzzles...");
+                results = PuzzleResultTable.build(
+                        pm, ratingModel, aggregate -> aggregate.weightSum(0));
+                if (cacheFile != null) {
+                    System.out.printf("Caching results to '%s'...%n", cacheFile);
+                    results.writeTo(cacheFile);
+                }
+            }
+            accessibility = puzzle -> results.accessibility(results.indexOf(puzzle));
+
+            System.out.printf("Selecting puzzles with scores between %s and %s, inclusive...%n",
+                    scoreLowerBound, scoreUpperBound);
+            // Iterate in the PuzzleMaster's order rather than the table's, since the random
+            // choices below depend on it.
+            final List<Puzzle> puzzlesInScoreRange = pm.puzzles.stream()
+                    .filter(puzzle -> {
+                        final int score = results.score(results.indexOf(puzzle));
+                        return scoreLowerBound <= score && score <= scoreUpperBound;
+                    })
+                    .collect(Collectors.toList());
+            System.out.println("--- Puzzles in score range: " + puzzlesInScoreRange.size());
+
+            System.out.println("Selecting at most one puzzle per pot...");
+            final List<Puzzle> nonOverlappingPuzzles = puzzlesInScoreRange
+                    .stream()
+                    .collect(Collectors.groupingBy(puzzle -> puzzle.potVector))
+                    .values().stream()
+                    .map(list -> list.get(rng.nextInt(list.size())))
+                    .collect(Collectors.toCollection(ArrayList::new));
+            System.out.println("--- Puzzles in pool: " + nonOverlappingPuzzles.size());
+
+            final List<Puzzle> puzzles = nonOverlappingPuzzles;
+            System.out.println("Sorting puzzles by decreasing accessibility...");
+            puzzles.sort(Comparator.comparingDouble(accessibility).reversed());
+
+            System.out.println("Randomizing order within tripartitions...");
+            final int bigStep = puzzles.size() / 3;
+            terciles = Arrays.asList(
+                    puzzles.subList(0, bigStep),
+                    puzzles.subList(bigStep, 2 * bigStep),
+                    puzzles.subList(2 * bigStep, puzzles.size()));
+            terciles.forEach(tercile -> Collections.shuffle(tercile, rng));
+        }
+
+        final Path outPath = Paths.get(outputFilename);
+        System.out.printf("Writing puzzles to '%s'...%n", outPath);
+        final Function<Puzzle, PuzzleDatum> formDatum = (puzzle) -> ratingModel.rate(
+                puzzle, pm.compactSolutionsTo(puzzle), accessibility.applyAsDouble(puzzle));
+        try (PuzzleWriter writer = PuzzleWriter.open(outPath)) {
+            final int nPages = terciles.stream().mapToInt(List::size).min().getAsInt();
+            for (int i = 0; i < nWeeks && i < nPages; i++) {
+                final Puzzle easy = terciles.get(0).get(i);
+                final Puzzle medium = terciles.get(1).get(i);
+                final Puzzle hard = terciles.get(2).get(i);
+                writer.writePage(
                         formDatum.apply(easy),
                         formDatum.apply(medium),
-                        formDatum.apply(hard)));
+                        formDatum.apply(hard));
             }
-            writer.write("\\end{document}\n");
         }
         System.out.println("Done.");
     }
 
-    static String pageTeX(PuzzleDatum easy, PuzzleDatum medium, PuzzleDatum hard) {
-        final StringBuilder sb = new StringBuilder();
-        sb.append(puzzleTeX(easy));
-        sb.append("\\nextpuzzle\n");
-        sb.append(puzzleTeX(medium));
-        sb.append("\\nextpuzzle\n");
-        sb.append(puzzleTeX(hard));
-        sb.append("\\clearpage\n\n");
-        return sb.toString();
-    }
-
-    static String puzzleTeX(PuzzleDatum datum) {
-        final IntFunction<String> vectorToTeXGroup = (vector) ->
-                Puzzle.characterUnvector(vector).toUpperCase()
-                        .chars().boxed()
-                        .map(x -> String.valueOf((char) x.intValue()))
-                        .collect(Collectors.joining(",", "{", "}"));
-        final StringBuilder sb = new StringBuilder();
-        sb.append("\\puzzle{%\n");
-        sb.append("  required=");
-        final int required = datum.puzzle.requiredVector;
-        sb.append(vectorToTeXGroup.apply(required));
-        sb.append(",\n  optional=");
-        final int optional = datum.puzzle.potVector & ~required;
-        sb.append(vectorToTeXGroup.apply(optional));
-        sb.append(",\n  good=");
-        sb.append(datum.good);
-        sb.append(",\n  excellent=");
-        sb.append(datum.excellent);
-        sb.append(",\n  genius=");
-        sb.append(datum.genius);
-        sb.append("\n}\n");
-        return sb.toString();
+    /**
+     * Merge the shards of the results for a cache key written by runs with {@code --shard}, if
+     * every shard of some shard count is present.
+     *
+     * @param cacheDirectory
+     *         the cache directory
+     * @param key
+     *         the cache key of this run
+     * @return the merged results, or {@code null} if no complete set of readable shards is
+     * present
+     * @throws IOException
+     *         if the cache directory cannot be listed
+     */
+    static PuzzleResultTable mergeShards(Path cacheDirectory, String key) throws IOException {
+        final Pattern shardName =
+                Pattern.compile(Pattern.quote(key) + "\\.shard-([0-9]+)-of-([0-9]+)\\.bin");
+        final Map<Integer, List<Path>> shardFilesByCount;
+        try (Stream<Path> files = Files.list(cacheDirectory)) {
+            shardFilesByCount = files
+                    .filter(file -> shardName.matcher(file.getFileName().toString()).matches())
+                    .sorted()
+                    .collect(Collectors.groupingBy(file -> {
+                        final Matcher matcher = shardName.matcher(file.getFileName().toString());
+                        matcher.matches();
+                        return Integer.parseInt(matcher.group(2));
+                    }, TreeMap::new, Collectors.toList()));
+        }
+        for (Map.Entry<Integer, List<Path>> entry : shardFilesByCount.entrySet()) {
+            if (entry.getValue().size() != entry.getKey()) {
+                System.out.printf("Ignoring %s of %s shards...%n",
+                        entry.getValue().size(), entry.getKey());
+                continue;
+            }
+            System.out.printf("Merging %s shards...%n", entry.getKey());
+            try {
+                final List<PuzzleResultTable> parts = new ArrayList<>();
+                for (Path file : entry.getValue()) {
+                    parts.add(PuzzleResultTable.map(file));
+                }
+                return PuzzleResultTable.merge(parts);
+            } catch (IOException | IllegalArgumentException e) {
+                // As with an unreadable cache file, the results will be computed from scratch.
+                System.out.printf("Ignoring unreadable shards: %s%n", e);
+            }
+        }
+        return null;
     }
 
 }
@@ -1,22 +1,47 @@
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
 
 /**
  * A class for generating and solving puzzles.
  */
 final class PuzzleMaster {
 
+    /**
+     * The order of words within a bucket in the word ID space: longest first, then
+     * lexicographically.
+     */
+    static final Comparator<String> WORD_ID_ORDER =
+            Comparator.comparingInt(String::length).reversed()
+                    .thenComparing(Comparator.naturalOrder());
+
+    /**
+     * The number of puzzles scored together, sharing one scratch array, by {@link
+     * #scoresByPackedIndex()}.
+     */
+    private static final int SCORE_CHUNK_SIZE = 1024;
+
     /**
      * All words that might appear in a puzzle. This includes all words composed only of
      * characters in the alphabet (i.e., the 26 lowercase Latin characters), with length at least
-     * {@value Puzzle#MINIMUM_WORD_LENGTH}, and with at most {@value Puzzle#POT_SIZE} distinct
-     * letters.
+     * {@value Puzzle#MINIMUM_WORD_LENGTH}, with at most {@value Puzzle#POT_SIZE} distinct
+     * letters, and whose letters are {@linkplain PuzzleConstraints#allowsLetters(int) allowed}
+     * by the {@link #constraints}. If the words are stored in a
+     * {@linkplain #compact(Collection, PuzzleConstraints, List) byte arena}, this is a read-only
+     * view rather than a hash set.
      */
     final Set<String> words;
 
@@ -24,23 +49,121 @@ final class PuzzleMaster {
      * The {@linkplain #words set of all valid words}, segmented by their
      * {@linkplain #characterVector(char[]) character vectors}. Two words will be in the same
      * bucket if and only if they contain the same sets of characters, not considering
-     * multiplicity. The union of all the values equals the full word set.
+     * multiplicity. The union of all the values equals the full word set. If the words are
+     * stored in a {@linkplain #compact(Collection, PuzzleConstraints, List) byte arena}, this
+     * is a read-only view rather than a map of hash sets.
      */
     final Map<Integer, Set<String>> wordsByVector;
 
     /**
      * The set of all character vectors that could represent a pot: i.e., the set of all
      * character vectors some permutation of which is a valid word with exactly {@value
-     * Puzzle#POT_SIZE} distinct letters.
+     * Puzzle#POT_SIZE} distinct letters, and which the {@link #constraints} allow with at least
+     * one required letter.
      */
     final Set<Integer> pots;
 
     /**
      * The set of all potential puzzles. This is trivially formed from {@link #pots} by choosing
-     * each potential required letter for each potential pot.
+     * each potential required letter allowed by the {@link #constraints} for each potential pot.
      */
     final List<Puzzle> puzzles;
 
+    /**
+     * The constraints that all {@link #pots} and {@link #puzzles} satisfy.
+     */
+    final PuzzleConstraints constraints;
+
+    /**
+     * The per-word weights whose sums are maintained for each bucket of {@link #wordsByVector},
+     * in the order in which they are reported by {@link SolutionAggregate#weightSum(int)}.
+     */
+    final List<ToDoubleFunction<String>> weights;
+
+    /**
+     * The keys of {@link #wordsByVector}, in increasing order. The other {@code bucket*} arrays
+     * are parallel to this one.
+     */
+    private final int[] bucketVectors;
+
+    /**
+     * For each bucket, the word ID of the first word in that bucket, followed by one final entry
+     * equal to the total number of words. The words in bucket {@code i} are those with IDs from
+     * {@code bucketStarts[i]}, inclusive, to {@code bucketStarts[i + 1]}, exclusive.
+     */
+    private final int[] bucketStarts;
+
+    /**
+     * All {@linkplain #words words}, indexed by word ID. Words are grouped by bucket, in the
+     * order of {@link #bucketVectors}; within a bucket, longer words come first, and words of
+     * the same length are in lexicographic order. This is {@code null} if the words are stored
+     * in the {@link #wordBytes} arena instead.
+     */
+    private final String[] wordsById;
+
+    /**
+     * If this {@code PuzzleMaster} was created by {@link #compact(Collection, PuzzleConstraints,
+     * List)}, the ASCII bytes of all words, concatenated in order of word ID; otherwise
+     * {@code null}.
+     */
+    private final byte[] wordBytes;
+
+    /**
+     * If the words are stored in the {@link #wordBytes} arena, the offset of each word's first
+     * byte, followed by one final entry equal to the length of the arena; otherwise
+     * {@code null}. The word with ID {@code id} occupies bytes {@code wordOffsets[id]},
+     * inclusive, to {@code wordOffsets[id + 1]}, exclusive.
+     */
+    private final int[] wordOffsets;
+
+    /**
+     * For each bucket, the number of bingos in that bucket. A bucket's words are either all
+     * bingos or all non-bingos, so each entry is either zero or the bucket's word count.
+     */
+    private final int[] bucketBingoCounts;
+
+    /**
+     * For each weight and then each bucket, the sum of the weight over all words in that bucket.
+     */
+    private final double[][] bucketWeightSums;
+
+    /**
+     * All {@link #pots}, in decreasing order of their number of bingos, with ties broken by
+     * increasing vector.
+     */
+    private final int[] potsByBingoCount;
+
+    /**
+     * All {@link #puzzles}, each {@linkplain #pack(Puzzle) packed} into an {@code int}, in
+     * increasing order: that is, grouped by pot in increasing order of pot vector, and then in
+     * increasing order of required letter.
+     */
+    private final int[] packedPuzzles;
+
+    /**
+     * Create a {@code PuzzleMaster} with no constraints and no per-word weights. See
+     * {@link #PuzzleMaster(Collection, PuzzleConstraints, List)}.
+     *
+     * @param allWords
+     *         the collection of valid words
+     */
+    PuzzleMaster(Collection<String> allWords) {
+        this(allWords, PuzzleConstraints.NONE, Collections.emptyList());
+    }
+
+    /**
+     * Create a {@code PuzzleMaster} with no constraints. See
+     * {@link #PuzzleMaster(Collection, PuzzleConstraints, List)}.
+     *
+     * @param allWords
+     *         the collection of valid words
+     * @param weights
+     *         per-word weights to sum over each bucket, for use with {@link #aggregateFor(Puzzle)}
+     */
+    PuzzleMaster(Collection<String> allWords, List<ToDoubleFunction<String>> weights) {
+        this(allWords, PuzzleConstraints.NONE, weights);
+    }
+
     /**
      * <p>
      * Create a {@code PuzzleMaster} using the given set of words as the dictionary. The words in
@@ -48,16 +171,69 @@ final class PuzzleMaster {
      * characters from outside the alphabet.
      * </p>
      * <p>
+     * Words, pots, and puzzles excluded by the constraints are dropped as soon as they are
+     * encountered, so they cost nothing beyond the initial scan of the word list.
+     * </p>
+     * <p>
      * <strong>Note:</strong> this constructor does non-trivial work; assuming that the length
-     * of a word is bounded, the work is linear in the length of {@code allWords}.
+     * of a word is bounded, the work is linear in the length of {@code allWords} times one plus
+     * the number of weights.
      * </p>
      *
      * @param allWords
      *         the collection of valid words
+     * @param constraints
+     *         the rules that all generated puzzles must satisfy
+     * @param weights
+     *         per-word weights to sum over each bucket, for use with {@link #aggregateFor(Puzzle)}
      */
-    PuzzleMaster(Collection<String> allWords) {
-        words = new HashSet<>();
-        wordsByVector = new HashMap<>();
+    PuzzleMaster(
+            Collection<String> allWords,
+            PuzzleConstraints constraints,
+            List<ToDoubleFunction<String>> weights) {
+        this(allWords, constraints, weights, false);
+    }
+
+    /**
+     * <p>
+     * Create a {@code PuzzleMaster} that stores its words compactly, for keeping several large
+     * dictionaries resident at once. The words are packed as ASCII into one {@code byte[]}
+     * arena, grouped by bucket in order of word ID, with an {@code int[]} table of offsets;
+     * no per-word {@code String}s or hash sets are retained. {@link #words} and {@link
+     * #wordsByVector} become read-only views over the buckets, and {@link #word(int)} decodes
+     * each word on demand.
+     * </p>
+     * <p>
+     * Puzzles, solutions, and aggregates are exactly as for {@link #PuzzleMaster(Collection,
+     * PuzzleConstraints, List)}, and bucket-level queries such as {@link #aggregateFor(Puzzle)}
+     * and {@link #compactSolutionsTo(Puzzle)} cost the same; operations that return words as
+     * strings cost one decoding per word.
+     * </p>
+     *
+     * @param allWords
+     *         the collection of valid words
+     * @param constraints
+     *         the rules that all generated puzzles must satisfy
+     * @param weights
+     *         per-word weights to sum over each bucket, for use with {@link #aggregateFor(Puzzle)}
+     * @return a {@code PuzzleMaster} whose words are stored in a byte arena
+     */
+    static PuzzleMaster compact(
+            Collection<String> allWords,
+            PuzzleConstraints constraints,
+            List<ToDoubleFunction<String>> weights) {
+        return new PuzzleMaster(allWords, constraints, weights, true);
+    }
+
+    private PuzzleMaster(
+            Collection<String> allWords,
+            PuzzleConstraints constraints,
+            List<ToDoubleFunction<String>> weights,
+            boolean compact) {
+        this.constraints = constraints;
+        this.weights = Collections.unmodifiableList(new ArrayList<>(weights));
+        final Set<String> acceptedWords = new HashSet<>();
+        final Map<Integer, Set<String>> buckets = new HashMap<>();
         pots = new HashSet<>();
         puzzles = new ArrayList<>();
         outer:
@@ -72,17 +248,72 @@ final class PuzzleMaster {
             }
             final int vector = Puzzle.characterVector(word.toCharArray());
             final int distinctLetterCount = Integer.bitCount(vector);
-            if (distinctLetterCount > Puzzle.POT_SIZE) {
+            if (distinctLetterCount > Puzzle.POT_SIZE || !constraints.allowsLetters(vector)) {
                 continue;
             }
-            words.add(word);
-            wordsByVector.computeIfAbsent(vector, (k) -> new HashSet<>()).add(word);
+            acceptedWords.add(word);
+            buckets.computeIfAbsent(vector, (k) -> new HashSet<>()).add(word);
             if (distinctLetterCount == Puzzle.POT_SIZE) {
-                if (pots.add(vector)) {
-                    puzzles.addAll(puzzlesForPot(vector));
+                final int requiredLetters = constraints.allowedRequiredLetters(vector);
+                if (requiredLetters != 0 && pots.add(vector)) {
+                    puzzles.addAll(puzzlesForPot(vector, requiredLetters));
                 }
             }
         }
+
+        bucketVectors = buckets.keySet().stream().mapToInt(x -> x).sorted().toArray();
+        bucketStarts = new int[bucketVectors.length + 1];
+        bucketBingoCounts = new int[bucketVectors.length];
+        bucketWeightSums = new double[this.weights.size()][bucketVectors.length];
+        final String[] sortedWords = new String[acceptedWords.size()];
+        for (int i = 0; i < bucketVectors.length; i++) {
+            final Set<String> bucket = buckets.get(bucketVectors[i]);
+            final int start = bucketStarts[i];
+            bucketStarts[i + 1] = start + bucket.size();
+            System.arraycopy(bucket.toArray(new String[0]), 0, sortedWords, start, bucket.size());
+            Arrays.sort(sortedWords, start, start + bucket.size(), WORD_ID_ORDER);
+            if (Integer.bitCount(bucketVectors[i]) >= Puzzle.POT_SIZE) {
+                bucketBingoCounts[i] = bucket.size();
+            }
+            for (int j = 0; j < bucketWeightSums.length; j++) {
+                final ToDoubleFunction<String> weight = this.weights.get(j);
+                double sum = 0;
+                for (final String word : bucket) {
+                    sum += weight.applyAsDouble(word);
+                }
+                bucketWeightSums[j][i] = sum;
+            }
+        }
+
+        potsByBingoCount = pots.stream()
+                .sorted(Comparator.comparingInt((Integer pot) -> bingoCount(pot))
+                        .reversed()
+                        .thenComparing(Comparator.naturalOrder()))
+                .mapToInt(x -> x)
+                .toArray();
+        packedPuzzles = puzzles.stream().mapToInt(PuzzleMaster::pack).sorted().toArray();
+
+        if (compact) {
+            wordOffsets = new int[sortedWords.length + 1];
+            for (int id = 0; id < sortedWords.length; id++) {
+                wordOffsets[id + 1] = wordOffsets[id] + sortedWords[id].length();
+            }
+            wordBytes = new byte[wordOffsets[sortedWords.length]];
+            for (int id = 0; id < sortedWords.length; id++) {
+                for (int i = 0; i < sortedWords[id].length(); i++) {
+                    wordBytes[wordOffsets[id] + i] = (byte) sortedWords[id].charAt(i);
+                }
+            }
+            wordsById = null;
+            words = new BucketSolutionSet(this, IntStream.range(0, bucketVectors.length).toArray());
+            wordsByVector = new BucketMap();
+        } else {
+            wordOffsets = null;
+            wordBytes = null;
+            wordsById = sortedWords;
+            words = acceptedWords;
+            wordsByVector = buckets;
+        }
     }
 
     /**
@@ -95,8 +326,23 @@ final class PuzzleMaster {
      * {@link Puzzle#requiredVector} has exactly one bit set
      */
     static List<Puzzle> puzzlesForPot(int pot) {
+        return puzzlesForPot(pot, pot);
+    }
+
+    /**
+     * Construct all puzzles whose pot vector is the given vector and whose required vector is
+     * a single one of the given letters.
+     *
+     * @param pot
+     *         a character vector, which should have at least one bit set
+     * @param requiredLetters
+     *         a subvector of {@code pot} of letters that may be required
+     * @return all {@link Puzzle}s whose {@link Puzzle#potVector} is {@code pot} and whose
+     * {@link Puzzle#requiredVector} is a single bit of {@code requiredLetters}
+     */
+    static List<Puzzle> puzzlesForPot(int pot, int requiredLetters) {
         final List<Puzzle> puzzles = new ArrayList<>();
-        int decayingPot = pot;
+        int decayingPot = requiredLetters;
         while (decayingPot != 0) {
             int required = Integer.lowestOneBit(decayingPot);
             decayingPot ^= required;
@@ -105,6 +351,81 @@ final class PuzzleMaster {
         return puzzles;
     }
 
+    /**
+     * Pack a puzzle with a single required letter into an {@code int}: the pot vector shifted
+     * left by five bits, combined with the index of the required letter in the alphabet. This
+     * uses 31 bits, so packed puzzles are non-negative and compare in order of pot vector and
+     * then required letter.
+     *
+     * @param puzzle
+     *         a puzzle whose required vector has exactly one bit set
+     * @return the packed puzzle
+     */
+    static int pack(Puzzle puzzle) {
+        return puzzle.potVector << 5 | Integer.numberOfTrailingZeros(puzzle.requiredVector);
+    }
+
+    /**
+     * Reconstruct a puzzle from its {@linkplain #pack(Puzzle) packed} form.
+     *
+     * @param packed
+     *         a packed puzzle
+     * @return the puzzle
+     */
+    static Puzzle unpack(int packed) {
+        return new Puzzle(packed >>> 5, 1 << (packed & 31));
+    }
+
+    /**
+     * @return the number of {@link #puzzles}, which is the length of the packed puzzle table
+     */
+    int packedPuzzleCount() {
+        return packedPuzzles.length;
+    }
+
+    /**
+     * Look up a puzzle in the packed puzzle table, which holds all {@link #puzzles} in the order
+     * described by {@link #pack(Puzzle)}. Arrays of per-puzzle results, such as those returned
+     * by {@link #scoresByPackedIndex()}, are indexed in the same order.
+     *
+     * @param index
+     *         an index less than {@link #packedPuzzleCount()}
+     * @return the packed puzzle at that index
+     */
+    int packedPuzzle(int index) {
+        return packedPuzzles[index];
+    }
+
+    /**
+     * Compute the maximum possible score of every puzzle, in parallel and without allocating
+     * per puzzle. Puzzles are scored in chunks of {@value #SCORE_CHUNK_SIZE}, each with its own
+     * scratch array of bucket indices.
+     *
+     * @return the score of each puzzle, indexed like the packed puzzle table
+     */
+    int[] scoresByPackedIndex() {
+        final int[] result = new int[packedPuzzles.length];
+        final int chunkCount = (packedPuzzles.length + SCORE_CHUNK_SIZE - 1) / SCORE_CHUNK_SIZE;
+        IntStream.range(0, chunkCount).parallel().forEach(chunk -> {
+            final int[] bucketIndices = new int[1 << (Puzzle.POT_SIZE - 1)];
+            final int end = Math.min((chunk + 1) * SCORE_CHUNK_SIZE, packedPuzzles.length);
+            for (int i = chunk * SCORE_CHUNK_SIZE; i < end; i++) {
+                final int pot = packedPuzzles[i] >>> 5;
+                final int requiredVector = 1 << (packedPuzzles[i] & 31);
+                final int bucketCount =
+                        bucketIndicesFor(requiredVector, pot & ~requiredVector, bucketIndices);
+                int score = 0;
+                for (int b = 0; b < bucketCount; b++) {
+                    final int index = bucketIndices[b];
+                    score += bucketStarts[index + 1] - bucketStarts[index]
+                            + (Puzzle.BINGO_SCORE - 1) * bucketBingoCounts[index];
+                }
+                result[i] = score;
+            }
+        });
+        return result;
+    }
+
     /**
      * <p>
      * Find all words that can be formed in the given puzzle.
@@ -128,6 +449,542 @@ final class PuzzleMaster {
         return solutions;
     }
 
+    /**
+     * <p>
+     * Compute aggregate statistics over all words that can be formed in the given puzzle, without
+     * enumerating the words themselves. The result agrees with {@link #solutionsTo(Puzzle)}: its
+     * word count is the size of the solution set, its score is the {@linkplain
+     * Puzzle#score(Collection) score} of the solution set, and its {@code i}th weight sum is the
+     * sum of the {@code i}th of {@link #weights} over the solution set (up to floating-point
+     * reassociation).
+     * </p>
+     * <p>
+     * This runs in time Θ(2<sup><i>k</i></sup> log <i>b</i>), where <i>k</i> is the value of
+     * {@link Puzzle#POT_SIZE} and <i>b</i> is the number of buckets: it is independent of the
+     * number of solutions.
+     * </p>
+     *
+     * @param puzzle
+     *         a valid {@link Puzzle} instance
+     * @return the aggregate statistics for the puzzle's solution set
+     */
+    SolutionAggregate aggregateFor(Puzzle puzzle) {
+        return aggregateFor(puzzle, new SolutionAggregate(bucketWeightSums.length));
+    }
+
+    /**
+     * Compute aggregate statistics over all words that can be formed in the given puzzle, as in
+     * {@link #aggregateFor(Puzzle)}, but into an existing aggregate rather than a new one. This
+     * allocates only when the aggregate's scratch space must grow, which happens at most once for
+     * puzzles of {@value Puzzle#POT_SIZE} letters, so callers that aggregate many puzzles can
+     * reuse one aggregate.
+     *
+     * @param puzzle
+     *         a valid {@link Puzzle} instance
+     * @param into
+     *         an aggregate with one weight sum for each of {@link #weights}, whose previous
+     *         contents are overwritten
+     * @return {@code into}, holding the aggregate statistics for the puzzle's solution set
+     * @throws IllegalArgumentException
+     *         if {@code into} has the wrong number of weight sums
+     */
+    SolutionAggregate aggregateFor(Puzzle puzzle, SolutionAggregate into) {
+        if (into.weightCount() != bucketWeightSums.length) {
+            throw new IllegalArgumentException(String.format(
+                    "aggregate has %s weights, not %s",
+                    into.weightCount(), bucketWeightSums.length));
+        }
+        into.clear();
+        final int optionalVector = puzzle.potVector & ~puzzle.requiredVector;
+        final int[] bucketIndices = into.bucketIndices(1 << Integer.bitCount(optionalVector));
+        final int bucketCount =
+                bucketIndicesFor(puzzle.requiredVector, optionalVector, bucketIndices);
+        for (int i = 0; i < bucketCount; i++) {
+            final int index = bucketIndices[i];
+            into.add(bucketStarts[index + 1] - bucketStarts[index], bucketBingoCounts[index]);
+            for (int j = 0; j < bucketWeightSums.length; j++) {
+                into.addWeight(j, bucketWeightSums[j][index]);
+            }
+        }
+        return into;
+    }
+
+    /**
+     * <p>
+     * Find the IDs of all words that can be formed in the given puzzle. The solution words are
+     * exactly the words {@link #word(int) word(id)} for each returned {@code id}.
+     * </p>
+     * <p>
+     * Because the words of each bucket have contiguous IDs, this does no per-word work other than
+     * writing the IDs to the result array.
+     * </p>
+     *
+     * @param puzzle
+     *         a valid {@link Puzzle} instance
+     * @return the solution word IDs, in increasing order
+     */
+    int[] solutionIdsTo(Puzzle puzzle) {
+        final int optionalVector = puzzle.potVector & ~puzzle.requiredVector;
+        final int[] bucketIndices = new int[1 << Integer.bitCount(optionalVector)];
+        final int bucketCount =
+                bucketIndicesFor(puzzle.requiredVector, optionalVector, bucketIndices);
+        int wordCount = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            wordCount += bucketStarts[bucketIndices[i] + 1] - bucketStarts[bucketIndices[i]];
+        }
+        Arrays.sort(bucketIndices, 0, bucketCount);
+        final int[] result = new int[wordCount];
+        int position = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            final int index = bucketIndices[i];
+            for (int id = bucketStarts[index]; id < bucketStarts[index + 1]; id++) {
+                result[position++] = id;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * <p>
+     * Find the IDs of all words that can be formed in the given puzzle, in display order: words
+     * with more distinct letters first, then longer words first, then lexicographically.
+     * </p>
+     * <p>
+     * Every word in a bucket has the same number of distinct letters, and each bucket's words
+     * are already stored longest first and then lexicographically. So the result is formed by
+     * grouping the puzzle's buckets by their number of distinct letters and, within each group,
+     * merging the buckets' runs of IDs with a heap. No comparison allocates, and no full sort of
+     * the solutions is needed.
+     * </p>
+     *
+     * @param puzzle
+     *         a valid {@link Puzzle} instance
+     * @return the solution word IDs, in display order
+     */
+    int[] orderedSolutionIdsTo(Puzzle puzzle) {
+        final int optionalVector = puzzle.potVector & ~puzzle.requiredVector;
+        final int[] bucketIndices = new int[1 << Integer.bitCount(optionalVector)];
+        final int bucketCount =
+                bucketIndicesFor(puzzle.requiredVector, optionalVector, bucketIndices);
+        int wordCount = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            wordCount += bucketStarts[bucketIndices[i] + 1] - bucketStarts[bucketIndices[i]];
+        }
+        // Insertion-sort the (at most 64) buckets by decreasing number of distinct letters.
+        for (int i = 1; i < bucketCount; i++) {
+            final int index = bucketIndices[i];
+            final int letters = Integer.bitCount(bucketVectors[index]);
+            int j = i - 1;
+            while (j >= 0 && Integer.bitCount(bucketVectors[bucketIndices[j]]) < letters) {
+                bucketIndices[j + 1] = bucketIndices[j];
+                j--;
+            }
+            bucketIndices[j + 1] = index;
+        }
+
+        final int[] result = new int[wordCount];
+        final int[] cursors = new int[bucketCount];
+        final int[] heap = new int[bucketCount];
+        int position = 0;
+        int groupStart = 0;
+        while (groupStart < bucketCount) {
+            final int letters = Integer.bitCount(bucketVectors[bucketIndices[groupStart]]);
+            int groupEnd = groupStart;
+            while (groupEnd < bucketCount
+                    && Integer.bitCount(bucketVectors[bucketIndices[groupEnd]]) == letters) {
+                groupEnd++;
+            }
+            // Each heap entry is a run, identified by its position in bucketIndices.
+            int heapSize = 0;
+            for (int run = groupStart; run < groupEnd; run++) {
+                cursors[run] = bucketStarts[bucketIndices[run]];
+                heap[heapSize++] = run;
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(heap, heapSize, i, cursors);
+            }
+            while (heapSize > 0) {
+                final int run = heap[0];
+                result[position++] = cursors[run]++;
+                if (cursors[run] == bucketStarts[bucketIndices[run] + 1]) {
+                    heap[0] = heap[--heapSize];
+                }
+                siftDown(heap, heapSize, 0, cursors);
+            }
+            groupStart = groupEnd;
+        }
+        return result;
+    }
+
+    /**
+     * Restore the heap property below position {@code i} of a min-heap of runs, ordered by the
+     * {@link #WORD_ID_ORDER} of the word at each run's cursor.
+     */
+    private void siftDown(int[] heap, int heapSize, int i, int[] cursors) {
+        while (true) {
+            final int left = 2 * i + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int smallest = left;
+            final int right = left + 1;
+            if (right < heapSize
+                    && compareWords(cursors[heap[right]], cursors[heap[left]]) < 0) {
+                smallest = right;
+            }
+            if (compareWords(cursors[heap[smallest]], cursors[heap[i]]) >= 0) {
+                return;
+            }
+            final int swap = heap[i];
+            heap[i] = heap[smallest];
+            heap[smallest] = swap;
+            i = smallest;
+        }
+    }
+
+    /**
+     * Find all words that can be formed in the given puzzle, as a compact immutable collection
+     * that iterates in display order. See {@link #orderedSolutionIdsTo(Puzzle)}.
+     *
+     * @param puzzle
+     *         a valid {@link Puzzle} instance
+     * @return an immutable collection of all solutions to the puzzle, in display order
+     */
+    Collection<String> orderedSolutionsTo(Puzzle puzzle) {
+        return new WordIdCollection(this, orderedSolutionIdsTo(puzzle));
+    }
+
+    /**
+     * Find all words that can be formed in the given puzzle, as an immutable view over this
+     * {@code PuzzleMaster}'s buckets rather than a copy. This contains the same words as
+     * {@link #solutionsTo(Puzzle)}, in increasing order of word ID, but creating it does no
+     * per-word work, and its size, membership tests, and {@linkplain Puzzle#score(Collection)
+     * score} are computed per bucket: see {@link BucketSolutionSet}.
+     *
+     * @param puzzle
+     *         a valid {@link Puzzle} instance
+     * @return an immutable view of all solutions to the puzzle
+     */
+    Set<String> compactSolutionsTo(Puzzle puzzle) {
+        return new BucketSolutionSet(this, puzzle);
+    }
+
+    /**
+     * <p>
+     * Check whether a guess is a solution to the given puzzle, and if not, why not. Letters in
+     * the guess are matched case-insensitively.
+     * </p>
+     * <p>
+     * The letter checks are bit operations on the puzzle's vectors, and the word-list check is a
+     * binary search within the single bucket for the guess's character vector. This does not
+     * allocate, so it is suitable for checking guesses during live play.
+     * </p>
+     *
+     * @param puzzle
+     *         a valid {@link Puzzle} instance
+     * @param guess
+     *         the word guessed by the player
+     * @return {@link GuessVerdict#ACCEPTED} if the guess is a solution, or else the first reason
+     * that it is not
+     */
+    GuessVerdict validate(Puzzle puzzle, CharSequence guess) {
+        if (guess.length() < Puzzle.MINIMUM_WORD_LENGTH) {
+            return GuessVerdict.TOO_SHORT;
+        }
+        final int vector = guessVector(guess);
+        if (vector < 0 || (vector & ~puzzle.potVector) != 0) {
+            return GuessVerdict.LETTER_NOT_IN_POT;
+        }
+        if ((vector & puzzle.requiredVector) != puzzle.requiredVector) {
+            return GuessVerdict.MISSING_REQUIRED_LETTER;
+        }
+        return findWord(vector, guess) >= 0 ?
+                GuessVerdict.ACCEPTED : GuessVerdict.NOT_IN_WORD_LIST;
+    }
+
+    /**
+     * Find the word ID of a guess, if it is a solution to the given puzzle. This performs the
+     * same checks as {@link #validate(Puzzle, CharSequence)}, and likewise does not allocate.
+     *
+     * @param puzzle
+     *         a valid {@link Puzzle} instance
+     * @param guess
+     *         the word guessed by the player
+     * @return the word ID of the guess if it is a solution to the puzzle, or {@code -1}
+     * otherwise
+     */
+    int solutionIdOf(Puzzle puzzle, CharSequence guess) {
+        if (guess.length() < Puzzle.MINIMUM_WORD_LENGTH) {
+            return -1;
+        }
+        final int vector = guessVector(guess);
+        if (vector < 0
+                || (vector & ~puzzle.potVector) != 0
+                || (vector & puzzle.requiredVector) != puzzle.requiredVector) {
+            return -1;
+        }
+        return findWord(vector, guess);
+    }
+
+    /**
+     * Compute the character vector of a guess, folding ASCII uppercase letters to lowercase.
+     *
+     * @param guess
+     *         an arbitrary character sequence
+     * @return the character vector of the guess, or {@code -1} if it contains a character
+     * outside the alphabet
+     */
+    private static int guessVector(CharSequence guess) {
+        int vector = 0;
+        for (int i = 0; i < guess.length(); i++) {
+            final int ordinal = toLowerCase(guess.charAt(i)) - 'a';
+            if (ordinal < 0 || ordinal >= 26) {
+                return -1;
+            }
+            vector |= 1 << ordinal;
+        }
+        return vector;
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+
+    /**
+     * Find the ID of a word given its character vector, by binary search within its bucket in
+     * {@link #WORD_ID_ORDER}.
+     *
+     * @param vector
+     *         the character vector of {@code word}
+     * @param word
+     *         the word to find, with ASCII letters of either case
+     * @return the ID of the word, or {@code -1} if it is not in the dictionary
+     */
+    int findWord(int vector, CharSequence word) {
+        final int index = Arrays.binarySearch(bucketVectors, vector);
+        if (index < 0) {
+            return -1;
+        }
+        int low = bucketStarts[index];
+        int high = bucketStarts[index + 1] - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int comparison = compareInWordIdOrder(mid, word);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compare a dictionary word with a character sequence in {@link #WORD_ID_ORDER}, folding
+     * ASCII uppercase letters in the sequence to lowercase.
+     */
+    private int compareInWordIdOrder(int id, CharSequence other) {
+        if (wordsById != null) {
+            final String word = wordsById[id];
+            if (word.length() != other.length()) {
+                return Integer.compare(other.length(), word.length());
+            }
+            for (int i = 0; i < word.length(); i++) {
+                final int difference = word.charAt(i) - toLowerCase(other.charAt(i));
+                if (difference != 0) {
+                    return difference;
+                }
+            }
+            return 0;
+        }
+        final int start = wordOffsets[id];
+        final int length = wordOffsets[id + 1] - start;
+        if (length != other.length()) {
+            return Integer.compare(other.length(), length);
+        }
+        for (int i = 0; i < length; i++) {
+            final int difference = wordBytes[start + i] - toLowerCase(other.charAt(i));
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Compare two dictionary words, given their IDs, in {@link #WORD_ID_ORDER}. The words need
+     * not be in the same bucket.
+     */
+    private int compareWords(int id, int otherId) {
+        if (wordsById != null) {
+            return WORD_ID_ORDER.compare(wordsById[id], wordsById[otherId]);
+        }
+        final int start = wordOffsets[id];
+        final int otherStart = wordOffsets[otherId];
+        final int length = wordOffsets[id + 1] - start;
+        final int otherLength = wordOffsets[otherId + 1] - otherStart;
+        if (length != otherLength) {
+            return Integer.compare(otherLength, length);
+        }
+        for (int i = 0; i < length; i++) {
+            final int difference = wordBytes[start + i] - wordBytes[otherStart + i];
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Find all bingos for a pot: the words that use every letter of the pot. These are the
+     * bingos of every puzzle with this pot, regardless of the required letter, and they are found
+     * without solving any puzzle.
+     *
+     * @param pot
+     *         a character vector, usually one of {@link #pots}
+     * @return an immutable collection of all words whose character vector is {@code pot}
+     */
+    Collection<String> bingosFor(int pot) {
+        final int index = Arrays.binarySearch(bucketVectors, pot);
+        if (index < 0) {
+            return Collections.emptyList();
+        }
+        final int[] ids = new int[bucketStarts[index + 1] - bucketStarts[index]];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = bucketStarts[index] + i;
+        }
+        return new WordIdCollection(this, ids);
+    }
+
+    /**
+     * Count the bingos for a pot, as in {@link #bingosFor(int)}, in time logarithmic in the
+     * number of buckets and without allocating.
+     *
+     * @param pot
+     *         a character vector, usually one of {@link #pots}
+     * @return the number of words whose character vector is {@code pot}
+     */
+    int bingoCount(int pot) {
+        final int index = Arrays.binarySearch(bucketVectors, pot);
+        return index < 0 ? 0 : bucketStarts[index + 1] - bucketStarts[index];
+    }
+
+    /**
+     * List all {@link #pots} from the most bingos to the fewest, with ties broken by increasing
+     * vector. The order is computed once, during construction.
+     *
+     * @return a stream of pot vectors
+     */
+    IntStream potsByBingoCount() {
+        return Arrays.stream(potsByBingoCount);
+    }
+
+    /**
+     * The number of buckets: i.e., the number of distinct character vectors among all words.
+     * Buckets are indexed from zero in increasing order of character vector.
+     *
+     * @return the number of buckets
+     */
+    int bucketCount() {
+        return bucketVectors.length;
+    }
+
+    /**
+     * Find the bucket for a character vector.
+     *
+     * @param vector
+     *         an arbitrary character vector
+     * @return the index of the bucket of words with this character vector, or a negative number
+     * if there are no such words
+     */
+    int bucketIndex(int vector) {
+        return Arrays.binarySearch(bucketVectors, vector);
+    }
+
+    /**
+     * <p>
+     * Find the buckets of all words that use every letter of {@code requiredVector} and no
+     * letters outside {@code requiredVector | optionalVector}: that is, the buckets whose vectors
+     * are {@code requiredVector} together with some subvector of {@code optionalVector}.
+     * </p>
+     * <p>
+     * This enumerates the 2<sup><i>k</i></sup> subvectors, where <i>k</i> is the number of
+     * optional letters, from the full vector down to zero, and looks up each one with {@link
+     * #bucketIndex(int)}. Callers then read whatever per-bucket data they need.
+     * </p>
+     *
+     * @param requiredVector
+     *         a vector of letters that must be used
+     * @param optionalVector
+     *         a vector of additional letters that may be used, disjoint from {@code
+     *         requiredVector}
+     * @param bucketIndices
+     *         an array of length at least 2<sup><i>k</i></sup>, into which the bucket indices
+     *         are written, in decreasing order of optional subvector
+     * @return the number of bucket indices written
+     */
+    int bucketIndicesFor(int requiredVector, int optionalVector, int[] bucketIndices) {
+        int bucketCount = 0;
+        // Enumerate all subvectors of the optional vector, from the full vector down to zero.
+        int subvector = optionalVector;
+        while (true) {
+            final int index = Arrays.binarySearch(bucketVectors, requiredVector | subvector);
+            if (index >= 0) {
+                bucketIndices[bucketCount++] = index;
+            }
+            if (subvector == 0) {
+                break;
+            }
+            subvector = (subvector - 1) & optionalVector;
+        }
+        return bucketCount;
+    }
+
+    /**
+     * Get the character vector of all words in a bucket.
+     *
+     * @param index
+     *         a bucket index, less than {@link #bucketCount()}
+     * @return the bucket's character vector
+     */
+    int bucketVector(int index) {
+        return bucketVectors[index];
+    }
+
+    /**
+     * Get the ID of the first word in a bucket. The words in bucket {@code i} have IDs from
+     * {@code bucketStart(i)}, inclusive, to {@code bucketStart(i + 1)}, exclusive; as a special
+     * case, {@code bucketStart(bucketCount())} is the total number of words.
+     *
+     * @param index
+     *         a bucket index, at most {@link #bucketCount()}
+     * @return the ID of the bucket's first word
+     */
+    int bucketStart(int index) {
+        return bucketStarts[index];
+    }
+
+    /**
+     * Look up a word by its ID. Word IDs range from zero, inclusive, to the size of
+     * {@link #words}, exclusive; they are stable for a given dictionary. If the words are stored
+     * in a {@linkplain #compact(Collection, PuzzleConstraints, List) byte arena}, each call
+     * decodes a new string.
+     *
+     * @param id
+     *         a word ID
+     * @return the word with the given ID
+     */
+    String word(int id) {
+        if (wordsById != null) {
+            return wordsById[id];
+        }
+        return new String(
+                wordBytes, wordOffsets[id], wordOffsets[id + 1] - wordOffsets[id],
+                StandardCharsets.US_ASCII);
+    }
+
     /**
      * Find all words that use all characters specified in the {@code requiredVector} and use no
      * additional characters except for those specified in the {@code optionalVector}, and add those
@@ -152,4 +1009,54 @@ final class PuzzleMaster {
         }
     }
 
+    /**
+     * A read-only view of the buckets as a map from character vector to the bucket's words,
+     * which serves as {@link #wordsByVector} when the words are stored in a byte arena. Each
+     * bucket is presented as a {@link BucketSolutionSet} over that bucket alone.
+     */
+    private final class BucketMap extends AbstractMap<Integer, Set<String>> {
+
+        @Override
+        public int size() {
+            return bucketVectors.length;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer && bucketIndex((Integer) key) >= 0;
+        }
+
+        @Override
+        public Set<String> get(Object key) {
+            if (!(key instanceof Integer)) {
+                return null;
+            }
+            final int index = bucketIndex((Integer) key);
+            return index < 0 ? null : bucket(index);
+        }
+
+        @Override
+        public Set<Entry<Integer, Set<String>>> entrySet() {
+            return new AbstractSet<Entry<Integer, Set<String>>>() {
+                @Override
+                public int size() {
+                    return bucketVectors.length;
+                }
+
+                @Override
+                public Iterator<Entry<Integer, Set<String>>> iterator() {
+                    return IntStream.range(0, bucketVectors.length)
+                            .mapToObj(i -> (Entry<Integer, Set<String>>)
+                                    new SimpleImmutableEntry<>(bucketVectors[i], bucket(i)))
+                            .iterator();
+                }
+            };
+        }
+
+        private Set<String> bucket(int index) {
+            return new BucketSolutionSet(PuzzleMaster.this, new int[]{index});
+        }
+
+    }
+
 }
@@ -0,0 +1,445 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * The solved and rated results for every puzzle of a {@link PuzzleMaster}: each puzzle's word
+ * count, score, and accessibility, together with the {@link RatingModel} fitted for the run. This
+ * is everything {@link PuzzleGenerator} needs to select puzzles, so a table saved by one run can
+ * be {@linkplain #map(Path) memory-mapped} by a later run with the same inputs to skip solving
+ * and training altogether; see {@link #cacheKey(List, String)}.
+ * </p>
+ * <p>
+ * The file format is big-endian: a header of four integers ({@link #MAGIC}, {@link #VERSION}, the
+ * puzzle count, and the shard: zero for a complete table, or {@code shardCount << 16 | shard} for
+ * a partial one); the rating model's good intercept, good slope, delta intercept, and
+ * delta slope, as doubles; and then one record of {@value #RECORD_BYTES} bytes for each puzzle,
+ * in increasing order of pot vector and then required vector: the pot vector, required vector,
+ * word count, and score as integers, and the accessibility as a double.
+ * </p>
+ * <p>
+ * A table may also be built for only one shard of the pots, so that separate processes can each
+ * build a part; {@link #merge(List)} combines a complete set of parts into exactly the table that
+ * a single {@link #build(PuzzleMaster, RatingModel, ToDoubleFunction)} would produce.
+ * </p>
+ */
+final class PuzzleResultTable {
+
+    /**
+     * The first integer of a result-table file: {@code "SBRT"} in ASCII.
+     */
+    static final int MAGIC = 0x53425254;
+
+    /**
+     * The version of the file format described in the class documentation.
+     */
+    static final int VERSION = 1;
+
+    /**
+     * The number of bytes in each puzzle record.
+     */
+    static final int RECORD_BYTES = 24;
+
+    /**
+     * The largest number of shards into which a table may be split.
+     */
+    static final int MAXIMUM_SHARD_COUNT = 1 << 15;
+
+    private static final int HEADER_BYTES = 16 + 4 * 8;
+
+    private final ByteBuffer buffer;
+
+    /**
+     * The number of puzzles in the table.
+     */
+    final int puzzleCount;
+
+    /**
+     * The rating model fitted for the puzzles' accessibilities.
+     */
+    final RatingModel ratingModel;
+
+    /**
+     * The shard of pots whose puzzles are in this table, less than {@link #shardCount}.
+     */
+    final int shard;
+
+    /**
+     * The number of shards into which the pots were split, or {@code 1} for a complete table.
+     */
+    final int shardCount;
+
+    private PuzzleResultTable(ByteBuffer buffer) {
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_BYTES) {
+            throw new IllegalArgumentException("truncated puzzle result table");
+        }
+        if (buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("not a puzzle result table");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IllegalArgumentException("unsupported version: " + buffer.getInt(4));
+        }
+        puzzleCount = buffer.getInt(8);
+        if (buffer.capacity() != HEADER_BYTES + (long) puzzleCount * RECORD_BYTES) {
+            throw new IllegalArgumentException("truncated puzzle result table");
+        }
+        ratingModel = new RatingModel(
+                buffer.getDouble(16), buffer.getDouble(24),
+                buffer.getDouble(32), buffer.getDouble(40));
+        final int shardField = buffer.getInt(12);
+        shard = shardField & 0xffff;
+        shardCount = shardField == 0 ? 1 : shardField >>> 16;
+        if (shard >= shardCount) {
+            throw new IllegalArgumentException("invalid shard: " + shard + "/" + shardCount);
+        }
+    }
+
+    /**
+     * Allocate a table in memory, with its header filled in and its records zeroed.
+     */
+    private static ByteBuffer allocate(
+            RatingModel ratingModel, int puzzleCount, int shard, int shardCount) {
+        final ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + puzzleCount * RECORD_BYTES);
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+        buffer.putInt(8, puzzleCount);
+        buffer.putInt(12, shardCount == 1 ? 0 : shardCount << 16 | shard);
+        buffer.putDouble(16, ratingModel.goodIntercept);
+        buffer.putDouble(24, ratingModel.goodSlope);
+        buffer.putDouble(32, ratingModel.deltaIntercept);
+        buffer.putDouble(40, ratingModel.deltaSlope);
+        return buffer;
+    }
+
+    /**
+     * Find the shard to which a pot belongs. This depends only on the pot vector, so every
+     * process assigns pots to shards identically, and it spreads the structured pot vectors
+     * evenly over the shards.
+     *
+     * @param pot
+     *         a pot vector
+     * @param shardCount
+     *         the number of shards, positive and at most {@link #MAXIMUM_SHARD_COUNT}
+     * @return the pot's shard, less than {@code shardCount}
+     */
+    static int shardOf(int pot, int shardCount) {
+        // Multiplicative (Fibonacci) hashing, then scaling the 32-bit hash to the shard count.
+        final long hash = (pot * 0x9e3779b9L) & 0xffffffffL;
+        return (int) ((hash * shardCount) >>> 32);
+    }
+
+    /**
+     * Solve and rate all of a {@code PuzzleMaster}'s puzzles, in memory and in parallel.
+     *
+     * @param pm
+     *         the source of the puzzles and their aggregates
+     * @param ratingModel
+     *         the rating model to store with the results
+     * @param accessibility
+     *         a function computing the accessibility of a puzzle from its aggregate
+     * @return the results
+     */
+    static PuzzleResultTable build(
+            PuzzleMaster pm,
+            RatingModel ratingModel,
+            ToDoubleFunction<SolutionAggregate> accessibility) {
+        return build(pm, ratingModel, accessibility, 0, 1);
+    }
+
+    /**
+     * Solve and rate the puzzles of one {@linkplain #shardOf(int, int) shard} of a {@code
+     * PuzzleMaster}'s pots, in memory and in parallel.
+     *
+     * @param pm
+     *         the source of the puzzles and their aggregates
+     * @param ratingModel
+     *         the rating model to store with the results
+     * @param accessibility
+     *         a function computing the accessibility of a puzzle from its aggregate
+     * @param shard
+     *         the shard to build, less than {@code shardCount}
+     * @param shardCount
+     *         the number of shards, positive and at most {@link #MAXIMUM_SHARD_COUNT}
+     * @return the results for the puzzles in the shard
+     * @throws IllegalArgumentException
+     *         if the shard is out of range
+     */
+    static PuzzleResultTable build(
+            PuzzleMaster pm,
+            RatingModel ratingModel,
+            ToDoubleFunction<SolutionAggregate> accessibility,
+            int shard,
+            int shardCount) {
+        if (shardCount < 1 || shardCount > MAXIMUM_SHARD_COUNT
+                || shard < 0 || shard >= shardCount) {
+            throw new IllegalArgumentException("invalid shard: " + shard + "/" + shardCount);
+        }
+        // The packed puzzle table is already in the order of the file format.
+        final int[] packedIndices = IntStream.range(0, pm.packedPuzzleCount())
+                .filter(i -> shardOf(pm.packedPuzzle(i) >>> 5, shardCount) == shard)
+                .toArray();
+        final int puzzleCount = packedIndices.length;
+        final ByteBuffer buffer = allocate(ratingModel, puzzleCount, shard, shardCount);
+        IntStream.range(0, puzzleCount).parallel().forEach(i -> {
+            final Puzzle puzzle = PuzzleMaster.unpack(pm.packedPuzzle(packedIndices[i]));
+            final SolutionAggregate aggregate = pm.aggregateFor(puzzle);
+            final int base = HEADER_BYTES + i * RECORD_BYTES;
+            buffer.putInt(base, puzzle.potVector);
+            buffer.putInt(base + 4, puzzle.requiredVector);
+            buffer.putInt(base + 8, aggregate.wordCount);
+            buffer.putInt(base + 12, aggregate.score());
+            buffer.putDouble(base + 16, accessibility.applyAsDouble(aggregate));
+        });
+        return new PuzzleResultTable(buffer);
+    }
+
+    /**
+     * Combine the parts of a sharded table into the complete table. The result is identical to
+     * the table that {@link #build(PuzzleMaster, RatingModel, ToDoubleFunction)} would produce
+     * for the same inputs.
+     *
+     * @param parts
+     *         one table for each shard, built with the same shard count and rating model, in any
+     *         order
+     * @return the complete table
+     * @throws IllegalArgumentException
+     *         if the parts are not exactly one of each shard, or disagree on the rating model
+     */
+    static PuzzleResultTable merge(List<PuzzleResultTable> parts) {
+        if (parts.isEmpty()) {
+            throw new IllegalArgumentException("no parts to merge");
+        }
+        final PuzzleResultTable first = parts.get(0);
+        final boolean[] seen = new boolean[first.shardCount];
+        int puzzleCount = 0;
+        for (PuzzleResultTable part : parts) {
+            if (part.shardCount != first.shardCount || seen[part.shard]) {
+                throw new IllegalArgumentException(String.format(
+                        "unexpected shard %s/%s", part.shard, part.shardCount));
+            }
+            if (!part.hasSameRatingModel(first)) {
+                throw new IllegalArgumentException("parts have different rating models");
+            }
+            seen[part.shard] = true;
+            puzzleCount += part.puzzleCount;
+        }
+        if (parts.size() != first.shardCount) {
+            throw new IllegalArgumentException(String.format(
+                    "expected %s shards, found %s", first.shardCount, parts.size()));
+        }
+
+        // Each part is sorted, and no pot is in two parts, so a merge of the parts is sorted.
+        // The parts that have records left are kept in a heap, keyed by their next record.
+        final ByteBuffer buffer = allocate(first.ratingModel, puzzleCount, 0, 1);
+        final int[] cursors = new int[parts.size()];
+        final long[] heads = new long[parts.size()];
+        final PriorityQueue<Integer> queue =
+                new PriorityQueue<>(parts.size(), Comparator.comparingLong(j -> heads[j]));
+        for (int j = 0; j < parts.size(); j++) {
+            if (parts.get(j).puzzleCount > 0) {
+                heads[j] = parts.get(j).key(0);
+                queue.add(j);
+            }
+        }
+        for (int i = 0; i < puzzleCount; i++) {
+            final int next = queue.remove();
+            final PuzzleResultTable part = parts.get(next);
+            final ByteBuffer record = part.buffer.duplicate();
+            record.position(HEADER_BYTES + cursors[next]++ * RECORD_BYTES);
+            record.limit(record.position() + RECORD_BYTES);
+            buffer.position(HEADER_BYTES + i * RECORD_BYTES);
+            buffer.put(record);
+            if (cursors[next] < part.puzzleCount) {
+                heads[next] = part.key(cursors[next]);
+                queue.add(next);
+            }
+        }
+        buffer.clear();
+        return new PuzzleResultTable(buffer);
+    }
+
+    /**
+     * Compare the stored rating models bit for bit, since {@link RatingModel} has no {@code
+     * equals}.
+     */
+    private boolean hasSameRatingModel(PuzzleResultTable other) {
+        for (int offset = 16; offset < HEADER_BYTES; offset += 8) {
+            if (buffer.getLong(offset) != other.buffer.getLong(offset)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compute a key identifying the inputs of a run: the SHA-256 digest of the contents of each
+     * input file and of a description of any other parameters. Runs with the same key produce
+     * the same results, so the key can name a cached {@code PuzzleResultTable}.
+     *
+     * @param inputFiles
+     *         the files read by the run, in a fixed order
+     * @param parameters
+     *         a description of every other setting that affects the results, such as estimator
+     *         parameters and constraints
+     * @return the key, as a lowercase hexadecimal string
+     * @throws IOException
+     *         if an input file cannot be read
+     */
+    static String cacheKey(List<Path> inputFiles, String parameters) throws IOException {
+        final MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new AssertionError("SHA-256 is required of every Java platform", e);
+        }
+        digest.update(ByteBuffer.allocate(4).putInt(VERSION).array());
+        final byte[] chunk = new byte[1 << 16];
+        for (Path file : inputFiles) {
+            // Prefix each file with its length, so that content cannot shift between files.
+            digest.update(ByteBuffer.allocate(8).putLong(Files.size(file)).array());
+            try (InputStream in = Files.newInputStream(file)) {
+                int n;
+                while ((n = in.read(chunk)) > 0) {
+                    digest.update(chunk, 0, n);
+                }
+            }
+        }
+        digest.update(parameters.getBytes(StandardCharsets.UTF_8));
+        final StringBuilder result = new StringBuilder();
+        for (byte b : digest.digest()) {
+            result.append(String.format("%02x", b));
+        }
+        return result.toString();
+    }
+
+    /**
+     * Map a result-table file into memory.
+     *
+     * @param path
+     *         a file written by {@link #writeTo(Path)}
+     * @return the results
+     * @throws IOException
+     *         if the file cannot be mapped
+     * @throws IllegalArgumentException
+     *         if the file is not a supported result-table file
+     */
+    static PuzzleResultTable map(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new PuzzleResultTable(
+                    channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Write the results to a file in the format described in the class documentation. The file
+     * is written under a temporary name and then renamed, so that a concurrent or interrupted
+     * run never observes a partial file.
+     *
+     * @param path
+     *         the file to write
+     * @throws IOException
+     *         if the file cannot be written
+     */
+    void writeTo(Path path) throws IOException {
+        final Path temporary = Files.createTempFile(
+                path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+        try {
+            final ByteBuffer duplicate = buffer.duplicate();
+            duplicate.clear();
+            try (FileChannel channel = FileChannel.open(temporary,
+                    StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                while (duplicate.hasRemaining()) {
+                    channel.write(duplicate);
+                }
+            }
+            Files.move(temporary, path,
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Find the index of a puzzle's results.
+     *
+     * @param puzzle
+     *         a puzzle
+     * @return the index of the puzzle's results, or {@code -1} if the puzzle has none
+     */
+    int indexOf(Puzzle puzzle) {
+        final long key = (long) puzzle.potVector << 32 | puzzle.requiredVector;
+        int low = 0;
+        int high = puzzleCount - 1;
+        while (low <= high) {
+            final int mid = (low + high) >>> 1;
+            final int comparison = Long.compare(key(mid), key);
+            if (comparison < 0) {
+                low = mid + 1;
+            } else if (comparison > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    private long key(int index) {
+        final int base = HEADER_BYTES + index * RECORD_BYTES;
+        return (long) buffer.getInt(base) << 32 | buffer.getInt(base + 4);
+    }
+
+    /**
+     * @param index
+     *         a puzzle index, less than {@link #puzzleCount}
+     * @return the puzzle at that index
+     */
+    Puzzle puzzle(int index) {
+        final int base = HEADER_BYTES + index * RECORD_BYTES;
+        return new Puzzle(buffer.getInt(base), buffer.getInt(base + 4));
+    }
+
+    /**
+     * @param index
+     *         a puzzle index, less than {@link #puzzleCount}
+     * @return the number of solutions to the puzzle at that index
+     */
+    int wordCount(int index) {
+        return buffer.getInt(HEADER_BYTES + index * RECORD_BYTES + 8);
+    }
+
+    /**
+     * @param index
+     *         a puzzle index, less than {@link #puzzleCount}
+     * @return the maximum possible score of the puzzle at that index
+     */
+    int score(int index) {
+        return buffer.getInt(HEADER_BYTES + index * RECORD_BYTES + 12);
+    }
+
+    /**
+     * @param index
+     *         a puzzle index, less than {@link #puzzleCount}
+     * @return the accessibility of the puzzle at that index
+     */
+    double accessibility(int index) {
+        return buffer.getDouble(HEADER_BYTES + index * RECORD_BYTES + 16);
+    }
+
+}
@@ -0,0 +1,163 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * <p>
+ * Draws random puzzles from a {@link PuzzleMaster} subject to the same rules that
+ * {@link PuzzleGenerator} applies to the full puzzle space: the score must lie in a given range,
+ * at most one puzzle may be drawn per pot, and the puzzles are divided into terciles by
+ * accessibility.
+ * </p>
+ * <p>
+ * Rather than solving every puzzle, the sampler draws pots uniformly at random (rejecting pots
+ * already drawn), computes the {@linkplain PuzzleMaster#aggregateFor(Puzzle) aggregates} of the
+ * pot's puzzles, and picks one of the puzzles in the score range uniformly at random, rejecting
+ * the pot if there is none. Thus each pot with at least one puzzle in range is equally likely to
+ * be drawn, and each of its puzzles in range is equally likely to be chosen, as in
+ * {@code PuzzleGenerator}. The tercile boundaries are estimated from a pilot sample, whose
+ * puzzles are then kept. The cost is proportional to the number of puzzles requested (and to the
+ * rejection rate), not to the size of the puzzle space.
+ * </p>
+ */
+final class PuzzleSampler {
+
+    /**
+     * The minimum number of puzzles drawn to estimate the tercile boundaries.
+     */
+    static final int MINIMUM_PILOT_SIZE = 300;
+
+    private final PuzzleMaster pm;
+    private final int[] pots;
+    private final ToDoubleFunction<SolutionAggregate> accessibility;
+
+    /**
+     * Create a sampler.
+     *
+     * @param pm
+     *         the source of pots and puzzle aggregates
+     * @param accessibility
+     *         a function computing the accessibility of a puzzle from its aggregate, such as the
+     *         sum of an estimator's {@linkplain PuzzleMaster#weights weight}
+     */
+    PuzzleSampler(PuzzleMaster pm, ToDoubleFunction<SolutionAggregate> accessibility) {
+        this.pm = pm;
+        this.pots = pm.potsByBingoCount().toArray();
+        this.accessibility = accessibility;
+    }
+
+    /**
+     * A puzzle drawn by the sampler, with its accessibility.
+     */
+    private static final class Draw {
+        final Puzzle puzzle;
+        final double accessibility;
+
+        Draw(Puzzle puzzle, double accessibility) {
+            this.puzzle = puzzle;
+            this.accessibility = accessibility;
+        }
+    }
+
+    /**
+     * Draw puzzles from each accessibility tercile. If the pots run out first, some terciles
+     * may have fewer puzzles than requested.
+     *
+     * @param perTercile
+     *         the number of puzzles to draw from each tercile
+     * @param scoreLowerBound
+     *         the minimum score of a drawn puzzle, inclusive
+     * @param scoreUpperBound
+     *         the maximum score of a drawn puzzle, inclusive
+     * @param rng
+     *         the source of randomness
+     * @return three lists of puzzles with distinct pots, from the most accessible tercile to the
+     * least accessible, each in random order
+     */
+    List<List<Puzzle>> sampleByTercile(
+            int perTercile, int scoreLowerBound, int scoreUpperBound, Random rng) {
+        final Set<Integer> drawnPots = new HashSet<>();
+        final List<Draw> pilot = new ArrayList<>();
+        final int pilotSize = Math.max(MINIMUM_PILOT_SIZE, 3 * perTercile);
+        while (pilot.size() < pilotSize) {
+            final Draw draw = draw(drawnPots, scoreLowerBound, scoreUpperBound, rng);
+            if (draw == null) {
+                break;
+            }
+            pilot.add(draw);
+        }
+
+        final double[] sorted = pilot.stream().mapToDouble(d -> d.accessibility).sorted().toArray();
+        final double lowerCutoff = sorted.length == 0 ? 0 : sorted[sorted.length / 3];
+        final double upperCutoff = sorted.length == 0 ? 0 : sorted[2 * sorted.length / 3];
+
+        final List<List<Puzzle>> terciles = Arrays.asList(
+                new ArrayList<>(), new ArrayList<>(), new ArrayList<>());
+        for (Draw draw : pilot) {
+            addToTercile(terciles, draw, lowerCutoff, upperCutoff, perTercile);
+        }
+        while (terciles.stream().anyMatch(t -> t.size() < perTercile)) {
+            final Draw draw = draw(drawnPots, scoreLowerBound, scoreUpperBound, rng);
+            if (draw == null) {
+                break;
+            }
+            addToTercile(terciles, draw, lowerCutoff, upperCutoff, perTercile);
+        }
+        return terciles;
+    }
+
+    private static void addToTercile(
+            List<List<Puzzle>> terciles, Draw draw,
+            double lowerCutoff, double upperCutoff, int perTercile) {
+        final List<Puzzle> tercile;
+        if (draw.accessibility >= upperCutoff) {
+            tercile = terciles.get(0);
+        } else if (draw.accessibility >= lowerCutoff) {
+            tercile = terciles.get(1);
+        } else {
+            tercile = terciles.get(2);
+        }
+        if (tercile.size() < perTercile) {
+            tercile.add(draw.puzzle);
+        }
+    }
+
+    /**
+     * Draw one puzzle in the score range from a pot not yet drawn.
+     *
+     * @return the drawn puzzle, or {@code null} if every pot has been drawn
+     */
+    private Draw draw(
+            Set<Integer> drawnPots, int scoreLowerBound, int scoreUpperBound, Random rng) {
+        final Puzzle[] candidates = new Puzzle[Puzzle.POT_SIZE];
+        final double[] accessibilities = new double[Puzzle.POT_SIZE];
+        final SolutionAggregate aggregate = new SolutionAggregate(pm.weights.size());
+        while (drawnPots.size() < pots.length) {
+            final int pot = pots[rng.nextInt(pots.length)];
+            if (!drawnPots.add(pot)) {
+                continue;
+            }
+            int candidateCount = 0;
+            for (Puzzle puzzle : PuzzleMaster.puzzlesForPot(
+                    pot, pm.constraints.allowedRequiredLetters(pot))) {
+                pm.aggregateFor(puzzle, aggregate);
+                final int score = aggregate.score();
+                if (scoreLowerBound <= score && score <= scoreUpperBound) {
+                    candidates[candidateCount] = puzzle;
+                    accessibilities[candidateCount] = accessibility.applyAsDouble(aggregate);
+                    candidateCount++;
+                }
+            }
+            if (candidateCount > 0) {
+                final int chosen = rng.nextInt(candidateCount);
+                return new Draw(candidates[chosen], accessibilities[chosen]);
+            }
+        }
+        return null;
+    }
+
+}
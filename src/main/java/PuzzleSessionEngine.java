@@ -0,0 +1,223 @@
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>
+ * Tracks the progress of many concurrent players on a single puzzle.
+ * </p>
+ * <p>
+ * Each solution of the puzzle is assigned a stable <em>solution index</em>, from zero to the
+ * number of solutions, in increasing order of word ID. Each session is a fixed-size slot in one
+ * shared {@link AtomicLongArray}, holding the session's score followed by a bitset of the
+ * solution indices that the player has found. Accepting a guess sets one bit with a
+ * compare-and-set and adds the word's points to the score, so updates are lock-free and take
+ * constant time beyond validating the guess, and the heap used by the engine is fixed by its
+ * capacity.
+ * </p>
+ * <p>
+ * Sessions are identified by integer handles returned by {@link #openSession()}. Any number of
+ * threads may call any methods concurrently, but a handle must not be used after it is passed
+ * to {@link #closeSession(int)}.
+ * </p>
+ */
+final class PuzzleSessionEngine {
+
+    /**
+     * The puzzle being played, with its rating thresholds.
+     */
+    final PuzzleDatum datum;
+
+    /**
+     * The maximum number of sessions that can be open at once.
+     */
+    final int capacity;
+
+    private final PuzzleMaster pm;
+
+    /**
+     * The word IDs of all solutions, indexed by solution index.
+     */
+    private final int[] solutionIds;
+
+    /**
+     * The points awarded for each solution, indexed by solution index.
+     */
+    private final byte[] points;
+
+    /**
+     * The number of {@code long}s in each session's slot: one for the score, plus enough for a
+     * bit per solution.
+     */
+    private final int stride;
+
+    private final AtomicLongArray state;
+    private final AtomicInteger nextUnusedSlot = new AtomicInteger();
+    private final Queue<Integer> freeSlots = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Create an engine for the given puzzle.
+     *
+     * @param pm
+     *         the {@code PuzzleMaster} used to solve the puzzle and validate guesses
+     * @param datum
+     *         the puzzle to be played and its rating thresholds
+     * @param capacity
+     *         the maximum number of sessions that can be open at once
+     */
+    PuzzleSessionEngine(PuzzleMaster pm, PuzzleDatum datum, int capacity) {
+        this.pm = pm;
+        this.datum = datum;
+        this.capacity = capacity;
+        solutionIds = pm.solutionIdsTo(datum.puzzle);
+        points = new byte[solutionIds.length];
+        for (int i = 0; i < solutionIds.length; i++) {
+            final int vector = Puzzle.characterVector(pm.word(solutionIds[i]).toCharArray());
+            points[i] = (byte) (Integer.bitCount(vector) >= Puzzle.POT_SIZE ?
+                    Puzzle.BINGO_SCORE : 1);
+        }
+        stride = 1 + (solutionIds.length + 63) / 64;
+        state = new AtomicLongArray(Math.multiplyExact(capacity, stride));
+    }
+
+    /**
+     * The number of solutions to the puzzle.
+     *
+     * @return the number of solution indices
+     */
+    int solutionCount() {
+        return solutionIds.length;
+    }
+
+    /**
+     * Look up a solution by its solution index.
+     *
+     * @param index
+     *         a solution index
+     * @return the solution word
+     */
+    String solution(int index) {
+        return pm.word(solutionIds[index]);
+    }
+
+    /**
+     * Open a new session, with no words found.
+     *
+     * @return a handle for the session
+     * @throws IllegalStateException
+     *         if {@link #capacity} sessions are already open
+     */
+    int openSession() {
+        final Integer recycled = freeSlots.poll();
+        if (recycled != null) {
+            return recycled;
+        }
+        final int slot = nextUnusedSlot.getAndIncrement();
+        if (slot >= capacity) {
+            nextUnusedSlot.decrementAndGet();
+            throw new IllegalStateException("all " + capacity + " sessions are in use");
+        }
+        return slot;
+    }
+
+    /**
+     * Close a session, making its slot available to a future {@link #openSession()}.
+     *
+     * @param session
+     *         a handle for an open session, which must not be used afterward
+     */
+    void closeSession(int session) {
+        final int base = session * stride;
+        for (int i = 0; i < stride; i++) {
+            state.set(base + i, 0);
+        }
+        freeSlots.add(session);
+    }
+
+    /**
+     * Submit a guess on behalf of a player. If the guess is a solution that the player has not
+     * already found, it is marked as found and its points are added to the session's score.
+     *
+     * @param session
+     *         a handle for an open session
+     * @param guess
+     *         the word guessed by the player
+     * @return {@link GuessVerdict#ACCEPTED} if the guess was newly found,
+     * {@link GuessVerdict#ALREADY_FOUND} if it was a solution found earlier, or else the reason
+     * that the guess is not a solution
+     */
+    GuessVerdict submit(int session, CharSequence guess) {
+        final int id = pm.solutionIdOf(datum.puzzle, guess);
+        if (id < 0) {
+            return pm.validate(datum.puzzle, guess);
+        }
+        final int index = Arrays.binarySearch(solutionIds, id);
+        final int base = session * stride;
+        final int slot = base + 1 + (index >>> 6);
+        final long bit = 1L << index;
+        while (true) {
+            final long bits = state.get(slot);
+            if ((bits & bit) != 0) {
+                return GuessVerdict.ALREADY_FOUND;
+            }
+            if (state.compareAndSet(slot, bits, bits | bit)) {
+                state.addAndGet(base, points[index]);
+                return GuessVerdict.ACCEPTED;
+            }
+        }
+    }
+
+    /**
+     * Get a session's current score.
+     *
+     * @param session
+     *         a handle for an open session
+     * @return the total points of all words found in the session
+     */
+    int score(int session) {
+        return (int) state.get(session * stride);
+    }
+
+    /**
+     * Get the rank that a session's current score has earned.
+     *
+     * @param session
+     *         a handle for an open session
+     * @return the session's rank
+     */
+    Rank rank(int session) {
+        return Rank.of(score(session), datum);
+    }
+
+    /**
+     * Check whether a session has found a particular solution.
+     *
+     * @param session
+     *         a handle for an open session
+     * @param index
+     *         a solution index
+     * @return whether the solution has been found
+     */
+    boolean hasFound(int session, int index) {
+        return (state.get(session * stride + 1 + (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    /**
+     * Count the solutions found in a session.
+     *
+     * @param session
+     *         a handle for an open session
+     * @return the number of solutions found
+     */
+    int foundCount(int session) {
+        final int base = session * stride;
+        int count = 0;
+        for (int i = 1; i < stride; i++) {
+            count += Long.bitCount(state.get(base + i));
+        }
+        return count;
+    }
+
+}
@@ -1,26 +1,80 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.text.Normalizer;
+import java.text.Normalizer.Form;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.function.ToIntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
+ * <p>
  * Entry point to solve a specific puzzle given by the user.
+ * </p>
+ * <p>
+ * With {@code --alphabet}, the letters and the word list are in one of the alphabets accepted
+ * by {@link Alphabet#named(String)}, such as {@code spanish}, and the puzzle is solved with a
+ * {@link WidePuzzleMaster}. The letters are lowercased and normalized to Unicode form C; the word
+ * list should already be. For {@code english}, the puzzle is solved exactly as without the
+ * option, with {@code int} vectors.
+ * </p>
+ * <p>
+ * With {@code --batch}, instead solves many puzzles against a single {@link PuzzleMaster}. Each
+ * line of the input (a file, or stdin if none is given) specifies a puzzle as its required and
+ * optional letters, separated by whitespace or a comma; blank lines and lines starting with
+ * {@code #} are skipped, and any further fields are ignored, so a ratings file can be used as
+ * input directly. Lines are solved in parallel in chunks of {@value #BATCH_CHUNK_SIZE}, and the
+ * results are written to stdout in input order as each chunk completes, so memory usage does not
+ * grow with the size of the input. The output is human-readable text or, with {@code --json},
+ * one JSON object per puzzle, like
+ * </p>
+ * <pre>
+ * {"line":1,"required":"g","optional":"cenorv","score":24,"solutions":["convergence",...]}
+ * </pre>
+ * <p>
+ * A line that does not specify a valid puzzle (a single required letter and {@value
+ * Puzzle#POT_SIZE} distinct letters in all) yields an error in place of its result, like
+ * {@code {"line":2,"error":"..."}}, rather than aborting the batch.
+ * </p>
  */
 final class PuzzleSolver {
 
+    /**
+     * The number of input lines solved in parallel before their results are written out.
+     */
+    static final int BATCH_CHUNK_SIZE = 1024;
+
     static void printUsage() {
-        final List<String> args = Arrays.asList(
+        final String single = Arrays.asList(
                 PuzzleSolver.class.getName(),
                 "<words_file>",
+                "[--alphabet <english|spanish|german|polish>]",
                 "<required>",
-                "<optional>");
-        System.out.println("Usage: java " + args.stream().collect(Collectors.joining(" ")));
+                "<optional>").stream().collect(Collectors.joining(" "));
+        final String batch = Arrays.asList(
+                PuzzleSolver.class.getName(),
+                "<words_file>",
+                "--batch",
+                "[--json]",
+                "[<input_file>]").stream().collect(Collectors.joining(" "));
+        System.out.println("Usage: java " + single);
+        System.out.println("       java " + batch);
     }
 
     static int parseVector(String name, String s) {
@@ -34,42 +88,268 @@ final class PuzzleSolver {
         return Puzzle.characterVector(s.toLowerCase(Locale.US).toCharArray());
     }
 
+    static long parseVector(Alphabet alphabet, String name, String s) {
+        final String normalized = Normalizer.normalize(s.toLowerCase(Locale.ROOT), Form.NFC);
+        for (int i = 0; i < normalized.length(); ) {
+            final int codePoint = normalized.codePointAt(i);
+            if (alphabet.indexOf(codePoint) < 0) {
+                throw new IllegalArgumentException(String.format(
+                        "Invalid character in '%s' for the %s alphabet: '%s' (%x)",
+                        name, alphabet.name, new String(Character.toChars(codePoint)),
+                        codePoint));
+            }
+            i += Character.charCount(codePoint);
+        }
+        return alphabet.vector(normalized);
+    }
+
     public static void main(String[] args) throws IOException {
-        if (args.length != 3) {
+        if (args.length >= 2 && args[1].equals("--batch")) {
+            final boolean json = args.length >= 3 && args[2].equals("--json");
+            final int inputIndex = json ? 3 : 2;
+            if (args.length > inputIndex + 1) {
+                printUsage();
+                System.exit(1);
+            }
+            // Standard output carries the results, so progress goes to standard error.
+            System.err.println("Reading dictionary...");
+            final List<String> words = Files.readAllLines(Paths.get(args[0]));
+
+            System.err.println("Compiling generic puzzle data...");
+            final PuzzleMaster pm = new PuzzleMaster(words);
+
+            System.err.println("Solving puzzles...");
+            final Writer out = new BufferedWriter(
+                    new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+            try (BufferedReader in = args.length > inputIndex ?
+                    Files.newBufferedReader(Paths.get(args[inputIndex]), StandardCharsets.UTF_8) :
+                    new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))) {
+                solveBatch(pm, in, out, json);
+            }
+            out.flush();
+            System.err.println("Done.");
+            return;
+        }
+        final boolean withAlphabet = args.length == 5 && args[1].equals("--alphabet");
+        if (args.length != 3 && !withAlphabet) {
             printUsage();
             System.exit(1);
         }
+        Alphabet alphabet = Alphabet.ENGLISH;
+        if (withAlphabet) {
+            try {
+                alphabet = Alphabet.named(args[2]);
+            } catch (IllegalArgumentException e) {
+                printUsage();
+                System.exit(1);
+            }
+        }
         final String wordsFilename = args[0];
-        final int requiredVector = parseVector("required", args[1]);
-        final int optionalVector = parseVector("optional", args[2]);
+        final String requiredLetters = args[args.length - 2];
+        final String optionalLetters = args[args.length - 1];
+        if (alphabet != Alphabet.ENGLISH) {
+            solveWide(wordsFilename, alphabet, requiredLetters, optionalLetters);
+            return;
+        }
+        final int requiredVector = parseVector("required", requiredLetters);
+        final int optionalVector = parseVector("optional", optionalLetters);
         final int potVector = requiredVector | optionalVector;
         final Puzzle puzzle = new Puzzle(potVector, requiredVector);
 
+        // A single puzzle is solved fastest by one pass over the dictionary, without indexing it.
+        System.out.println("Solving puzzle...");
+        final Set<String> solutions = DirectScanSolver.solve(
+                Paths.get(wordsFilename), Collections.singletonList(puzzle)).get(0);
+
+        printSolutions(inDisplayOrder(solutions, PuzzleSolver::distinctLetters),
+                PuzzleSolver::distinctLetters, Puzzle.score(solutions));
+    }
+
+    /**
+     * Solve a puzzle in an alphabet other than English, and print its solutions as for an
+     * English puzzle.
+     */
+    private static void solveWide(
+            String wordsFilename, Alphabet alphabet, String requiredLetters,
+            String optionalLetters) throws IOException {
+        final long requiredVector = parseVector(alphabet, "required", requiredLetters);
+        final long potVector =
+                requiredVector | parseVector(alphabet, "optional", optionalLetters);
+
         System.out.println("Reading dictionary...");
-        final List<String> words = Files.readAllLines(Paths.get(wordsFilename));
+        final List<String> words =
+                Files.readAllLines(Paths.get(wordsFilename), StandardCharsets.UTF_8);
 
-        System.out.println("Compiling generic puzzle data...");
-        final PuzzleMaster pm = new PuzzleMaster(words);
+        System.out.println("Compiling " + alphabet.name + " puzzle data...");
+        final WidePuzzleMaster pm = new WidePuzzleMaster(words, alphabet);
 
         System.out.println("Solving puzzle...");
-        final Set<String> solutions = pm.solutionsTo(puzzle);
-
-        final ToIntFunction<String> uniqueLetters =
-                (String x) -> Integer.bitCount(Puzzle.characterVector(x.toCharArray()));
-        final Comparator<String> mostUniqueLettersFirst =
-                Comparator.comparingInt(uniqueLetters).reversed();
-        final Comparator<String> longestFirst =
-                Comparator.comparingInt(String::length).reversed();
+        final ToIntFunction<String> distinctLetters =
+                word -> Long.bitCount(alphabet.vector(word));
+        printSolutions(
+                inDisplayOrder(pm.solutionsTo(potVector, requiredVector), distinctLetters),
+                distinctLetters, pm.score(potVector, requiredVector));
+    }
 
+    private static void printSolutions(
+            List<String> ordered, ToIntFunction<String> distinctLetters, int score) {
         System.out.println("Solutions:");
-        solutions.stream()
-                .sorted(mostUniqueLettersFirst.thenComparing(longestFirst))
-                .forEachOrdered(word -> {
-                    final int letters = uniqueLetters.applyAsInt(word);
-                    final int value = letters >= Puzzle.POT_SIZE ? Puzzle.BINGO_SCORE : 1;
-                    System.out.printf("  - %s (%s)%n", word, value);
-                });
-        System.out.println("Score: " + Puzzle.score(solutions));
+        for (String word : ordered) {
+            System.out.printf("  - %s (%s)%n", word, wordScore(distinctLetters.applyAsInt(word)));
+        }
+        System.out.println("Score: " + score);
+    }
+
+    /**
+     * Sort solutions for display: words with the most distinct letters first, then longest
+     * first, then lexicographically. This agrees with
+     * {@link PuzzleMaster#orderedSolutionIdsTo(Puzzle)}, which should be used instead when a
+     * {@code PuzzleMaster} is at hand. As there, the words are grouped by their number of
+     * distinct letters, computed once per word, and each group is sorted in
+     * {@link PuzzleMaster#WORD_ID_ORDER}.
+     */
+    private static List<String> inDisplayOrder(
+            Collection<String> solutions, ToIntFunction<String> distinctLetters) {
+        final Map<Integer, List<String>> wordsByUniqueLetters = solutions.stream()
+                .collect(Collectors.groupingBy(
+                        distinctLetters::applyAsInt,
+                        () -> new TreeMap<>(Comparator.reverseOrder()),
+                        Collectors.toList()));
+        return wordsByUniqueLetters.values().stream()
+                .flatMap(group -> group.stream().sorted(PuzzleMaster.WORD_ID_ORDER))
+                .collect(Collectors.toList());
+    }
+
+    private static int distinctLetters(String word) {
+        return Integer.bitCount(Puzzle.characterVector(word.toCharArray()));
+    }
+
+    private static int wordScore(int distinctLetters) {
+        return distinctLetters >= Puzzle.POT_SIZE ? Puzzle.BINGO_SCORE : 1;
+    }
+
+    /**
+     * Solve every puzzle specified by the lines of the input, writing results in input order.
+     * See the class documentation for the input and output formats.
+     *
+     * @param pm
+     *         the {@code PuzzleMaster} to solve against
+     * @param in
+     *         the puzzle specifications, one per line; not closed
+     * @param out
+     *         the destination for results; not closed or flushed
+     * @param json
+     *         whether to write JSON lines rather than text
+     * @throws IOException
+     *         if reading or writing fails
+     */
+    static void solveBatch(PuzzleMaster pm, BufferedReader in, Writer out, boolean json)
+            throws IOException {
+        final List<String> chunk = new ArrayList<>(BATCH_CHUNK_SIZE);
+        int firstLineNumber = 1;
+        boolean done = false;
+        while (!done) {
+            final String line = in.readLine();
+            if (line == null) {
+                done = true;
+            } else {
+                chunk.add(line);
+            }
+            if (chunk.size() == BATCH_CHUNK_SIZE || (done && !chunk.isEmpty())) {
+                final int base = firstLineNumber;
+                final String[] results = new String[chunk.size()];
+                IntStream.range(0, chunk.size()).parallel().forEach(i ->
+                        results[i] = formatResult(pm, chunk.get(i), base + i, json));
+                for (String result : results) {
+                    if (result != null) {
+                        out.write(result);
+                    }
+                }
+                firstLineNumber += chunk.size();
+                chunk.clear();
+            }
+        }
+    }
+
+    /**
+     * Solve the puzzle specified by one line of batch input and format the result.
+     *
+     * @return the formatted result, ending with a newline; or {@code null} if the line is blank
+     * or a comment
+     */
+    private static String formatResult(
+            PuzzleMaster pm, String line, int lineNumber, boolean json) {
+        final String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.startsWith("#")) {
+            return null;
+        }
+        final Puzzle puzzle;
+        try {
+            final String[] fields = trimmed.split("[\\s,]+");
+            if (fields.length < 2) {
+                throw new IllegalArgumentException(
+                        "Expected required and optional letters: '" + trimmed + "'");
+            }
+            final int requiredVector = parseVector("required", fields[0]);
+            final int optionalVector = parseVector("optional", fields[1]);
+            if (Integer.bitCount(requiredVector) != 1) {
+                throw new IllegalArgumentException(
+                        "Expected a single required letter: '" + fields[0] + "'");
+            }
+            final int potVector = requiredVector | optionalVector;
+            if (Integer.bitCount(potVector) != Puzzle.POT_SIZE) {
+                throw new IllegalArgumentException(String.format(
+                        "Expected %s distinct letters, not %s: '%s %s'", Puzzle.POT_SIZE,
+                        Integer.bitCount(potVector), fields[0], fields[1]));
+            }
+            puzzle = new Puzzle(potVector, requiredVector);
+        } catch (IllegalArgumentException e) {
+            return json ?
+                    String.format("{\"line\":%s,\"error\":\"%s\"}\n",
+                            lineNumber, jsonEscape(e.getMessage())) :
+                    String.format("! line %s: %s%n", lineNumber, e.getMessage());
+        }
+
+        final Collection<String> ordered = pm.orderedSolutionsTo(puzzle);
+        final String required = Puzzle.characterUnvector(puzzle.requiredVector);
+        final String optional =
+                Puzzle.characterUnvector(puzzle.potVector & ~puzzle.requiredVector);
+        final StringBuilder sb = new StringBuilder();
+        if (json) {
+            sb.append("{\"line\":").append(lineNumber)
+                    .append(",\"required\":\"").append(required)
+                    .append("\",\"optional\":\"").append(optional)
+                    .append("\",\"score\":").append(Puzzle.score(ordered))
+                    .append(",\"solutions\":[");
+            String separator = "";
+            for (String word : ordered) {
+                // Dictionary words are lowercase Latin letters, so need no escaping.
+                sb.append(separator).append('"').append(word).append('"');
+                separator = ",";
+            }
+            sb.append("]}\n");
+        } else {
+            sb.append(String.format("%s %s: score %s%n",
+                    required, optional, Puzzle.score(ordered)));
+            for (String word : ordered) {
+                sb.append(String.format("  - %s (%s)%n", word, wordScore(distinctLetters(word))));
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String jsonEscape(String s) {
+        final StringBuilder sb = new StringBuilder();
+        for (char c : s.toCharArray()) {
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
     }
 
 }
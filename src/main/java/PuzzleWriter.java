@@ -0,0 +1,89 @@
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+
+/**
+ * <p>
+ * A sink for generated puzzles. Puzzles are written a page at a time, as soon as they are
+ * selected, directly to the underlying stream; no output is buffered beyond the stream's own
+ * buffer, so the cost of writing is proportional to the number of puzzles written.
+ * </p>
+ * <p>
+ * Closing a writer finishes the document (if the format has a trailer) and closes the underlying
+ * stream.
+ * </p>
+ */
+interface PuzzleWriter extends Closeable {
+
+    /**
+     * The size, in characters, of the buffer used by {@link #open(Path)}.
+     */
+    int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * Write a page of puzzles. Puzzles on the same page are conventionally ordered from easiest
+     * to hardest.
+     *
+     * @param puzzles
+     *         the puzzles to write, with their rating thresholds
+     * @throws IOException
+     *         if thrown while writing to the underlying stream
+     */
+    void writePage(PuzzleDatum... puzzles) throws IOException;
+
+    /**
+     * <p>
+     * Open a writer to the given file, choosing the output format by the file's extension:
+     * </p>
+     * <ul>
+     * <li>{@code .csv}: see {@link CsvPuzzleWriter}</li>
+     * <li>{@code .json} or {@code .jsonl}: see {@link JsonLinesPuzzleWriter}</li>
+     * <li>anything else: see {@link TeXPuzzleWriter}</li>
+     * </ul>
+     * <p>
+     * The file is created or truncated, and is written in UTF-8 through a buffered writer on a
+     * file channel.
+     * </p>
+     *
+     * @param path
+     *         the file to write
+     * @return a new writer, which the caller must close
+     * @throws IOException
+     *         if the file cannot be opened or the document header cannot be written
+     */
+    static PuzzleWriter open(Path path) throws IOException {
+        final Writer out = new BufferedWriter(Channels.newWriter(
+                FileChannel.open(path,
+                        StandardOpenOption.CREATE,
+                        StandardOpenOption.TRUNCATE_EXISTING,
+                        StandardOpenOption.WRITE),
+                StandardCharsets.UTF_8.newEncoder(),
+                BUFFER_SIZE), BUFFER_SIZE);
+        final String name = path.getFileName().toString().toLowerCase(Locale.US);
+        try {
+            if (name.endsWith(".csv")) {
+                return new CsvPuzzleWriter(out);
+            } else if (name.endsWith(".json") || name.endsWith(".jsonl")) {
+                return new JsonLinesPuzzleWriter(out);
+            } else {
+                return new TeXPuzzleWriter(out);
+            }
+        } catch (IOException | RuntimeException e) {
+            // The caller never gets a writer to close, so close the file here.
+            try {
+                out.close();
+            } catch (IOException suppressed) {
+                e.addSuppressed(suppressed);
+            }
+            throw e;
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+/**
+ * The rating that a player has earned on a puzzle, based on the thresholds of a
+ * {@link PuzzleDatum}.
+ */
+enum Rank {
+    /**
+     * The player has not yet reached the "good" threshold.
+     */
+    NONE,
+
+    GOOD,
+    EXCELLENT,
+    GENIUS;
+
+    /**
+     * Determine the rank earned by a score.
+     *
+     * @param score
+     *         the player's score
+     * @param datum
+     *         the puzzle and its thresholds
+     * @return the highest rank whose threshold is at most {@code score}
+     */
+    static Rank of(int score, PuzzleDatum datum) {
+        if (score >= datum.genius) {
+            return GENIUS;
+        } else if (score >= datum.excellent) {
+            return EXCELLENT;
+        } else if (score >= datum.good) {
+            return GOOD;
+        } else {
+            return NONE;
+        }
+    }
+}
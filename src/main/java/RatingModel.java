@@ -0,0 +1,136 @@
+import java.util.Collection;
+
+/**
+ * <p>
+ * A model that estimates the "good", "excellent", and "genius" thresholds for a puzzle from its
+ * accessibility. The "good" threshold and the per-level delta (half the distance from "good" to
+ * "genius") are each predicted by a simple linear regression on the accessibility; the
+ * "excellent" and "genius" thresholds are then one and two rounded deltas above "good".
+ * </p>
+ * <p>
+ * {@code RatingModel}s are immutable.
+ * </p>
+ */
+final class RatingModel {
+
+    /**
+     * The intercept of the regression for the "good" threshold.
+     */
+    final double goodIntercept;
+
+    /**
+     * The slope of the regression for the "good" threshold.
+     */
+    final double goodSlope;
+
+    /**
+     * The intercept of the regression for the per-level delta.
+     */
+    final double deltaIntercept;
+
+    /**
+     * The slope of the regression for the per-level delta.
+     */
+    final double deltaSlope;
+
+    RatingModel(double goodIntercept, double goodSlope, double deltaIntercept, double deltaSlope) {
+        this.goodIntercept = goodIntercept;
+        this.goodSlope = goodSlope;
+        this.deltaIntercept = deltaIntercept;
+        this.deltaSlope = deltaSlope;
+    }
+
+    /**
+     * Train a model on puzzles with known thresholds.
+     *
+     * @param trainingData
+     *         a dataset whose thresholds have positive variance
+     * @param estimator
+     *         the estimator with which to compute each puzzle's accessibility
+     * @return a new model
+     */
+    static RatingModel train(
+            Collection<PuzzleDatum> trainingData, AccessibilityEstimator estimator) {
+        final SimpleOrdinaryLinearRegression<PuzzleDatum> goodRatingModel =
+                new SimpleOrdinaryLinearRegression<>(
+                        datum -> estimator.accessibility(datum.puzzle, datum.solutions),
+                        datum -> datum.good);
+        goodRatingModel.train(trainingData);
+        final SimpleOrdinaryLinearRegression<PuzzleDatum> perLevelDeltaModel =
+                new SimpleOrdinaryLinearRegression<>(
+                        datum -> estimator.accessibility(datum.puzzle, datum.solutions),
+                        datum -> 0.5 * (datum.genius - datum.good));
+        perLevelDeltaModel.train(trainingData);
+        return new RatingModel(
+                goodRatingModel.beta0, goodRatingModel.beta1,
+                perLevelDeltaModel.beta0, perLevelDeltaModel.beta1);
+    }
+
+    /**
+     * Estimate the "good" threshold for a puzzle.
+     *
+     * @param accessibility
+     *         the puzzle's accessibility
+     * @return the estimated threshold
+     */
+    int good(double accessibility) {
+        return (int) Math.round(goodSlope * accessibility + goodIntercept);
+    }
+
+    /**
+     * Estimate the distance between consecutive thresholds for a puzzle.
+     *
+     * @param accessibility
+     *         the puzzle's accessibility
+     * @return the estimated per-level delta
+     */
+    int perLevelDelta(double accessibility) {
+        return (int) Math.round(deltaSlope * accessibility + deltaIntercept);
+    }
+
+    /**
+     * Estimate the "excellent" threshold for a puzzle.
+     *
+     * @param accessibility
+     *         the puzzle's accessibility
+     * @return the estimated threshold
+     */
+    int excellent(double accessibility) {
+        return good(accessibility) + perLevelDelta(accessibility);
+    }
+
+    /**
+     * Estimate the "genius" threshold for a puzzle.
+     *
+     * @param accessibility
+     *         the puzzle's accessibility
+     * @return the estimated threshold
+     */
+    int genius(double accessibility) {
+        return good(accessibility) + 2 * perLevelDelta(accessibility);
+    }
+
+    /**
+     * Rate a puzzle, attaching the estimated thresholds to its solutions.
+     *
+     * @param puzzle
+     *         the puzzle to rate
+     * @param solutions
+     *         all solutions to the puzzle
+     * @param accessibility
+     *         the puzzle's accessibility
+     * @return a datum with the estimated thresholds
+     */
+    PuzzleDatum rate(Puzzle puzzle, Collection<String> solutions, double accessibility) {
+        final int good = good(accessibility);
+        final int delta = perLevelDelta(accessibility);
+        return new PuzzleDatum(puzzle, solutions, good, good + delta, good + 2 * delta);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("RatingModel{good=%s*x + %s, delta=%s*x + %s}",
+                goodSlope, goodIntercept, deltaSlope, deltaIntercept);
+    }
+
+}
@@ -0,0 +1,130 @@
+import java.util.Arrays;
+
+/**
+ * <p>
+ * Aggregate statistics about the solution set of a puzzle, computed from per-bucket summaries
+ * rather than from the solution words themselves.
+ * </p>
+ * <p>
+ * An aggregate may be reused: passing it to {@link PuzzleMaster#aggregateFor(Puzzle,
+ * SolutionAggregate)} overwrites it with the statistics of another puzzle, so that a caller
+ * aggregating many puzzles in a loop need not allocate. Aggregates are not otherwise modified,
+ * and are not safe to share between threads while being reused.
+ * </p>
+ *
+ * @see PuzzleMaster#aggregateFor(Puzzle)
+ */
+final class SolutionAggregate {
+
+    /**
+     * The number of words in the solution set.
+     */
+    int wordCount;
+
+    /**
+     * The number of words in the solution set that are bingos: i.e., that have at least
+     * {@value Puzzle#POT_SIZE} distinct letters.
+     */
+    int bingoCount;
+
+    /**
+     * The sum of each of the {@link PuzzleMaster#weights} over the solution set.
+     */
+    private final double[] weightSums;
+
+    /**
+     * Scratch space for the bucket indices of the puzzles aggregated into this aggregate, kept so
+     * that reusing the aggregate does not allocate.
+     */
+    private int[] bucketIndices = new int[0];
+
+    SolutionAggregate(int wordCount, int bingoCount, double[] weightSums) {
+        this.wordCount = wordCount;
+        this.bingoCount = bingoCount;
+        this.weightSums = weightSums;
+    }
+
+    /**
+     * Create an empty aggregate, to be filled in by {@link PuzzleMaster#aggregateFor(Puzzle,
+     * SolutionAggregate)}.
+     *
+     * @param weightCount
+     *         the number of {@link PuzzleMaster#weights} of the {@code PuzzleMaster} that will
+     *         fill in this aggregate
+     */
+    SolutionAggregate(int weightCount) {
+        this(0, 0, new double[weightCount]);
+    }
+
+    /**
+     * @return the number of weight sums held by this aggregate
+     */
+    int weightCount() {
+        return weightSums.length;
+    }
+
+    /**
+     * Get this aggregate's scratch space for bucket indices, growing it if necessary.
+     *
+     * @param length
+     *         the number of bucket indices needed
+     * @return an array of at least that length, whose contents are unspecified
+     */
+    int[] bucketIndices(int length) {
+        if (bucketIndices.length < length) {
+            bucketIndices = new int[length];
+        }
+        return bucketIndices;
+    }
+
+    /**
+     * Reset this aggregate to describe an empty solution set.
+     */
+    void clear() {
+        wordCount = 0;
+        bingoCount = 0;
+        Arrays.fill(weightSums, 0);
+    }
+
+    /**
+     * Add the statistics of a bucket of words to this aggregate.
+     */
+    void add(int bucketWordCount, int bucketBingoCount) {
+        wordCount += bucketWordCount;
+        bingoCount += bucketBingoCount;
+    }
+
+    /**
+     * Add to the sum of one of the weights.
+     */
+    void addWeight(int index, double weight) {
+        weightSums[index] += weight;
+    }
+
+    /**
+     * Compute the score of the solution set, as in {@link Puzzle#score(java.util.Collection)}.
+     *
+     * @return the integer score for the solution set
+     */
+    int score() {
+        return wordCount + (Puzzle.BINGO_SCORE - 1) * bingoCount;
+    }
+
+    /**
+     * Get the sum of a per-word weight over the solution set.
+     *
+     * @param index
+     *         the index of the weight in the {@link PuzzleMaster#weights} of the
+     *         {@code PuzzleMaster} that produced this aggregate
+     * @return the sum of the given weight over all solutions
+     */
+    double weightSum(int index) {
+        return weightSums[index];
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SolutionAggregate{wordCount=%d, bingoCount=%d, score=%d}",
+                wordCount, bingoCount, score());
+    }
+}
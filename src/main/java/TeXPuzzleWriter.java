@@ -0,0 +1,57 @@
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * A {@link PuzzleWriter} that emits a LaTeX document using the {@code spellingbee} package, with
+ * one {@code \puzzle} per puzzle and one printed page per {@linkplain #writePage page}.
+ */
+final class TeXPuzzleWriter extends AbstractPuzzleWriter {
+
+    /**
+     * Create a writer and write the document preamble.
+     *
+     * @param out
+     *         the stream to which to write
+     * @throws IOException
+     *         if thrown while writing the preamble
+     */
+    TeXPuzzleWriter(Writer out) throws IOException {
+        super(out);
+        out.write("\\documentclass[12pt,letterpaper]{article}\n\n");
+        out.write("\\usepackage{spellingbee}\n\n");
+        out.write("\\begin{document}\n\n");
+    }
+
+    @Override
+    public void writePage(PuzzleDatum... puzzles) throws IOException {
+        for (int i = 0; i < puzzles.length; i++) {
+            if (i > 0) {
+                out.write("\\nextpuzzle\n");
+            }
+            writePuzzle(puzzles[i]);
+        }
+        out.write("\\clearpage\n\n");
+    }
+
+    private void writePuzzle(PuzzleDatum datum) throws IOException {
+        final int required = datum.puzzle.requiredVector;
+        final int optional = datum.puzzle.potVector & ~required;
+        out.write("\\puzzle{%\n  required={");
+        writeLetters(required, 'A', ',');
+        out.write("},\n  optional={");
+        writeLetters(optional, 'A', ',');
+        out.write("},\n  good=");
+        writeInt(datum.good);
+        out.write(",\n  excellent=");
+        writeInt(datum.excellent);
+        out.write(",\n  genius=");
+        writeInt(datum.genius);
+        out.write("\n}\n");
+    }
+
+    @Override
+    protected void writeTrailer() throws IOException {
+        out.write("\\end{document}\n");
+    }
+
+}
@@ -0,0 +1,227 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+
+/**
+ * <p>
+ * A counterpart to {@link PuzzleMaster} for an arbitrary {@link Alphabet}, with letter sets
+ * represented as {@code long} vectors so that alphabets of up to {@value Alphabet#MAXIMUM_SIZE}
+ * letters are supported.
+ * </p>
+ * <p>
+ * Words are stored as in {@link PuzzleMaster}: grouped into buckets by vector, with buckets in
+ * increasing order of vector and each bucket's words longest first and then lexicographically.
+ * Lengths are counted in code points. A puzzle is identified by its pot vector and its required
+ * vector, which must be a single bit of the pot.
+ * </p>
+ * <p>
+ * {@link PuzzleMaster} remains the implementation for {@link Alphabet#ENGLISH}: its vectors are
+ * half the width, and it is what the rest of the program understands. It supports no other
+ * alphabet, so this class is used for every other alphabet, including those whose vectors
+ * {@linkplain Alphabet#fitsInt() would fit in an int}. Given the same English word list,
+ * this class finds the same pots and the same scores, which {@link AlphabetBenchmark} uses to
+ * compare the two. {@link PuzzleSolver} uses this class to solve puzzles in other alphabets.
+ * </p>
+ */
+final class WidePuzzleMaster {
+
+    /**
+     * The alphabet from which words are formed.
+     */
+    final Alphabet alphabet;
+
+    /**
+     * The vector of each bucket, in increasing order. The other {@code bucket*} arrays are
+     * parallel to this one.
+     */
+    private final long[] bucketVectors;
+
+    /**
+     * For each bucket, the word ID of the first word in that bucket, followed by one final entry
+     * equal to the total number of words.
+     */
+    private final int[] bucketStarts;
+
+    /**
+     * For each bucket, the number of bingos in that bucket.
+     */
+    private final int[] bucketBingoCounts;
+
+    /**
+     * All words, indexed by word ID.
+     */
+    private final String[] wordsById;
+
+    /**
+     * The vectors of all buckets with exactly {@value Puzzle#POT_SIZE} letters, in increasing
+     * order.
+     */
+    private final long[] pots;
+
+    /**
+     * Create a {@code WidePuzzleMaster} using the given set of words as the dictionary. As with
+     * {@link PuzzleMaster}, the words may be arbitrary; those that are too short, that have too
+     * many distinct letters, or that use letters outside the alphabet are ignored.
+     *
+     * @param allWords
+     *         the collection of valid words
+     * @param alphabet
+     *         the alphabet from which words are formed
+     */
+    WidePuzzleMaster(Collection<String> allWords, Alphabet alphabet) {
+        this.alphabet = alphabet;
+        final Map<Long, TreeSet<String>> buckets = new HashMap<>();
+        for (final String word : allWords) {
+            if (word.codePointCount(0, word.length()) < Puzzle.MINIMUM_WORD_LENGTH) {
+                continue;
+            }
+            final long vector = alphabet.vector(word);
+            if (vector == 0 || Long.bitCount(vector) > Puzzle.POT_SIZE) {
+                continue;
+            }
+            buckets.computeIfAbsent(vector, k -> new TreeSet<>(PuzzleMaster.WORD_ID_ORDER))
+                    .add(word);
+        }
+
+        bucketVectors = buckets.keySet().stream().mapToLong(x -> x).sorted().toArray();
+        bucketStarts = new int[bucketVectors.length + 1];
+        bucketBingoCounts = new int[bucketVectors.length];
+        final List<String> words = new ArrayList<>();
+        for (int i = 0; i < bucketVectors.length; i++) {
+            final TreeSet<String> bucket = buckets.get(bucketVectors[i]);
+            words.addAll(bucket);
+            bucketStarts[i + 1] = words.size();
+            if (Long.bitCount(bucketVectors[i]) >= Puzzle.POT_SIZE) {
+                bucketBingoCounts[i] = bucket.size();
+            }
+        }
+        wordsById = words.toArray(new String[0]);
+        pots = Arrays.stream(bucketVectors)
+                .filter(v -> Long.bitCount(v) == Puzzle.POT_SIZE)
+                .toArray();
+    }
+
+    /**
+     * @return the number of distinct words
+     */
+    int wordCount() {
+        return wordsById.length;
+    }
+
+    /**
+     * @return the number of pots
+     */
+    int potCount() {
+        return pots.length;
+    }
+
+    /**
+     * @param index
+     *         an index less than {@link #potCount()}
+     * @return the pot with that index, in increasing order of vector
+     */
+    long pot(int index) {
+        return pots[index];
+    }
+
+    /**
+     * Find all words that can be formed in the given puzzle.
+     *
+     * @param potVector
+     *         the vector of the puzzle's letters
+     * @param requiredVector
+     *         the vector of the puzzle's required letter, a subset of {@code potVector}
+     * @return the solutions, ordered by word ID
+     */
+    List<String> solutionsTo(long potVector, long requiredVector) {
+        final long optionalVector = potVector & ~requiredVector;
+        final int[] bucketIndices = new int[1 << Long.bitCount(optionalVector)];
+        final int bucketCount = bucketIndicesFor(requiredVector, optionalVector, bucketIndices);
+        Arrays.sort(bucketIndices, 0, bucketCount);
+        final List<String> result = new ArrayList<>();
+        for (int i = 0; i < bucketCount; i++) {
+            final int index = bucketIndices[i];
+            result.addAll(Arrays.asList(wordsById)
+                    .subList(bucketStarts[index], bucketStarts[index + 1]));
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Compute the score of the given puzzle, as {@link Puzzle#score(Collection)} would for its
+     * solutions.
+     *
+     * @param potVector
+     *         the vector of the puzzle's letters
+     * @param requiredVector
+     *         the vector of the puzzle's required letter, a subset of {@code potVector}
+     * @return the puzzle's score
+     */
+    int score(long potVector, long requiredVector) {
+        final long optionalVector = potVector & ~requiredVector;
+        return score(requiredVector, optionalVector, new int[1 << Long.bitCount(optionalVector)]);
+    }
+
+    private int score(long requiredVector, long optionalVector, int[] bucketIndices) {
+        final int bucketCount = bucketIndicesFor(requiredVector, optionalVector, bucketIndices);
+        int score = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            final int index = bucketIndices[i];
+            score += bucketStarts[index + 1] - bucketStarts[index]
+                    + (Puzzle.BINGO_SCORE - 1) * bucketBingoCounts[index];
+        }
+        return score;
+    }
+
+    /**
+     * Compute the score of every puzzle, in parallel. The puzzles of pot {@code i} are at
+     * indices {@code i * POT_SIZE} through {@code i * POT_SIZE + POT_SIZE - 1}, one for each of
+     * the pot's letters in increasing order of bit index.
+     *
+     * @return the score of each puzzle
+     */
+    int[] scores() {
+        final int[] result = new int[pots.length * Puzzle.POT_SIZE];
+        IntStream.range(0, pots.length).parallel().forEach(i -> {
+            final int[] bucketIndices = new int[1 << (Puzzle.POT_SIZE - 1)];
+            long remaining = pots[i];
+            for (int j = 0; j < Puzzle.POT_SIZE; j++) {
+                final long requiredVector = Long.lowestOneBit(remaining);
+                remaining &= ~requiredVector;
+                result[i * Puzzle.POT_SIZE + j] =
+                        score(requiredVector, pots[i] & ~requiredVector, bucketIndices);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Find the buckets of all words that use every letter of {@code requiredVector} and no
+     * letters outside {@code requiredVector | optionalVector}, as {@link
+     * PuzzleMaster#bucketIndicesFor(int, int, int[])} does.
+     *
+     * @return the number of bucket indices written to {@code bucketIndices}
+     */
+    private int bucketIndicesFor(long requiredVector, long optionalVector, int[] bucketIndices) {
+        int bucketCount = 0;
+        long subvector = optionalVector;
+        while (true) {
+            final int index = Arrays.binarySearch(bucketVectors, requiredVector | subvector);
+            if (index >= 0) {
+                bucketIndices[bucketCount++] = index;
+            }
+            if (subvector == 0) {
+                break;
+            }
+            subvector = (subvector - 1) & optionalVector;
+        }
+        return bucketCount;
+    }
+
+}
@@ -0,0 +1,55 @@
+import java.util.AbstractCollection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable collection of words from a {@link PuzzleMaster}, stored as an array of word IDs
+ * rather than as references to the words themselves. The words are looked up in the
+ * {@code PuzzleMaster}'s flat word storage during iteration, so the collection costs four bytes
+ * per word and shares its strings with the dictionary.
+ */
+final class WordIdCollection extends AbstractCollection<String> {
+
+    private final PuzzleMaster pm;
+    private final int[] ids;
+
+    /**
+     * Create a collection of the given words. The array is not copied, so it must not be
+     * modified after it is passed to this constructor.
+     *
+     * @param pm
+     *         the {@code PuzzleMaster} whose word IDs these are
+     * @param ids
+     *         the word IDs
+     */
+    WordIdCollection(PuzzleMaster pm, int[] ids) {
+        this.pm = pm;
+        this.ids = ids;
+    }
+
+    @Override
+    public int size() {
+        return ids.length;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasNext() {
+                return next < ids.length;
+            }
+
+            @Override
+            public String next() {
+                if (next >= ids.length) {
+                    throw new NoSuchElementException();
+                }
+                return pm.word(ids[next++]);
+            }
+        };
+    }
+
+}
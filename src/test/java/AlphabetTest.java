@@ -0,0 +1,99 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+public class AlphabetTest {
+
+    private static final List<String> ENGLISH_WORDS = Arrays.asList(
+            "abracadabrazy", "abrac", "barca", "barbar", "cabaret", "zzzzz", "abrac",
+            "lengthened", "lengthen", "tenet", "teeth", "hedge", "ledge", "netted",
+            "Capital", "hyphen-ated", "tiny", "abcdefgh");
+
+    private static final List<String> POLISH_WORDS = Arrays.asList(
+            "żółwik", "żółw", "źdźbło", "łąkowy", "wąskość", "xerox", "pięćdziesiąt", "świat");
+
+    @Test
+    public void english_agreesWithCharacterVector() {
+        for (String word : ENGLISH_WORDS) {
+            final long expected = word.chars().allMatch(c -> c >= 'a' && c <= 'z')
+                    ? Puzzle.characterVector(word.toCharArray())
+                    : 0;
+            Assert.assertEquals(word, expected, Alphabet.ENGLISH.vector(word));
+            Assert.assertEquals(word, (int) expected, Alphabet.ENGLISH.intVector(word));
+        }
+        final int vector = Puzzle.characterVector("cabaret".toCharArray());
+        Assert.assertEquals(Puzzle.characterUnvector(vector), Alphabet.ENGLISH.unvector(vector));
+    }
+
+    @Test
+    public void polish_usesLongVectors() {
+        final Alphabet polish = Alphabet.POLISH;
+        Assert.assertEquals(35, polish.size());
+        Assert.assertFalse(polish.fitsInt());
+        Assert.assertEquals(34, polish.indexOf('x'));
+        Assert.assertEquals(-1, polish.indexOf('ñ'));
+        final long vector = polish.vector("xerox");
+        Assert.assertTrue(vector > Integer.MAX_VALUE);
+        Assert.assertEquals("eorx", polish.unvector(vector));
+        Assert.assertEquals("ikłówż", polish.unvector(polish.vector("żółwik")));
+        Assert.assertEquals(0, polish.vector("español"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void intVector_rejectsWideAlphabet() {
+        Alphabet.POLISH.intVector("xerox");
+    }
+
+    @Test
+    public void of_acceptsSupplementaryLetters() {
+        final Alphabet alphabet = Alphabet.of("test", "ab𝒞cd");
+        Assert.assertEquals(5, alphabet.size());
+        Assert.assertEquals(0b10101, alphabet.vector("a𝒞d"));
+        Assert.assertEquals("a𝒞d", alphabet.unvector(0b10101));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void of_rejectsRepeatedLetter() {
+        Alphabet.of("test", "abca");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void named_rejectsUnknownAlphabet() {
+        Alphabet.named("klingon");
+    }
+
+    @Test
+    public void widePuzzleMaster_agreesWithPuzzleMasterOnEnglish() {
+        final PuzzleMaster pm = new PuzzleMaster(ENGLISH_WORDS);
+        final WidePuzzleMaster wpm = new WidePuzzleMaster(ENGLISH_WORDS, Alphabet.ENGLISH);
+        Assert.assertEquals(pm.words.size(), wpm.wordCount());
+        Assert.assertEquals(pm.pots.size(), wpm.potCount());
+        Assert.assertArrayEquals(pm.scoresByPackedIndex(), wpm.scores());
+        for (Puzzle puzzle : pm.puzzles) {
+            Assert.assertEquals(
+                    pm.aggregateFor(puzzle).score(),
+                    wpm.score(puzzle.potVector, puzzle.requiredVector));
+            Assert.assertEquals(
+                    pm.solutionsTo(puzzle),
+                    new HashSet<>(
+                            wpm.solutionsTo(puzzle.potVector, puzzle.requiredVector)));
+        }
+    }
+
+    @Test
+    public void widePuzzleMaster_solvesPolish() {
+        final WidePuzzleMaster wpm = new WidePuzzleMaster(POLISH_WORDS, Alphabet.POLISH);
+        // "żółw" is too short, and "pięćdziesiąt" has too many letters.
+        Assert.assertEquals(6, wpm.wordCount());
+        Assert.assertEquals(1, wpm.potCount());
+        final long pot = wpm.pot(0);
+        Assert.assertEquals(Alphabet.POLISH.vector("wąskość"), pot);
+        final long required = Alphabet.POLISH.vector("ś");
+        Assert.assertEquals(Arrays.asList("wąskość"), wpm.solutionsTo(pot, required));
+        Assert.assertEquals(Puzzle.BINGO_SCORE, wpm.score(pot, required));
+    }
+
+}
@@ -0,0 +1,89 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+public class CorpusFrequenciesTest {
+
+    private static final List<String> WORDS = Arrays.asList(
+            "waste", "hedge", "ledge", "lengthened", "netted", "tiny", "Capital");
+
+    private static final String CORPUS = "Waste not, want not! The hedge's ledge\n"
+            + "was LENGTHENED--hedge-trimmed; 42 netted cafés waste\ttime. hedge";
+
+    private static Path writeCorpus(String text) throws IOException {
+        final Path path = Files.createTempFile("corpus", ".txt");
+        path.toFile().deleteOnExit();
+        Files.write(path, text.getBytes(StandardCharsets.UTF_8));
+        return path;
+    }
+
+    private static int idOf(PuzzleMaster vocabulary, String word) {
+        return IntStream.range(0, vocabulary.words.size())
+                .filter(id -> vocabulary.word(id).equals(word))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+    }
+
+    private static long count(CorpusFrequencies frequencies, String word) {
+        return frequencies.count(idOf(frequencies.vocabulary, word));
+    }
+
+    @Test
+    public void count_tokenizesAndCountsVocabularyWords() throws IOException {
+        final PuzzleMaster vocabulary = new PuzzleMaster(WORDS);
+        final CorpusFrequencies frequencies = CorpusFrequencies.count(
+                vocabulary, Collections.singletonList(writeCorpus(CORPUS)),
+                CorpusFrequencies.CHUNK_BYTES);
+        Assert.assertEquals(17, frequencies.tokenCount);
+        Assert.assertEquals(2, count(frequencies, "waste"));
+        Assert.assertEquals(3, count(frequencies, "hedge"));
+        Assert.assertEquals(1, count(frequencies, "ledge"));
+        Assert.assertEquals(1, count(frequencies, "lengthened"));
+        Assert.assertEquals(1, count(frequencies, "netted"));
+        Assert.assertEquals(3.0 / 17, frequencies.frequency(idOf(vocabulary, "hedge")), 0);
+    }
+
+    @Test
+    public void count_isIndependentOfChunkSize() throws IOException {
+        final PuzzleMaster vocabulary = new PuzzleMaster(WORDS);
+        final List<Path> corpora = Arrays.asList(writeCorpus(CORPUS), writeCorpus(CORPUS));
+        final CorpusFrequencies expected =
+                CorpusFrequencies.count(vocabulary, corpora, CorpusFrequencies.CHUNK_BYTES);
+        Assert.assertEquals(34, expected.tokenCount);
+        for (int chunkBytes = 1; chunkBytes < 20; chunkBytes++) {
+            final CorpusFrequencies actual =
+                    CorpusFrequencies.count(vocabulary, corpora, chunkBytes);
+            Assert.assertEquals(expected.tokenCount, actual.tokenCount);
+            for (int id = 0; id < vocabulary.words.size(); id++) {
+                Assert.assertEquals(expected.count(id), actual.count(id));
+            }
+        }
+    }
+
+    @Test
+    public void writeTo_isReadableByParseFrequencies() throws IOException {
+        final PuzzleMaster vocabulary = new PuzzleMaster(WORDS);
+        final CorpusFrequencies frequencies = CorpusFrequencies.count(
+                vocabulary, Collections.singletonList(writeCorpus(CORPUS)),
+                CorpusFrequencies.CHUNK_BYTES);
+        final Path output = Files.createTempFile("frequencies", ".csv");
+        output.toFile().deleteOnExit();
+        frequencies.writeTo(output);
+        final Map<String, Double> parsed =
+                AbstractFrequencyAccessibilityEstimator.parseFrequencies(
+                        Files.newInputStream(output));
+        Assert.assertEquals(vocabulary.words.size(), parsed.size());
+        Assert.assertEquals(2.0 / 17, parsed.get("waste"), 0);
+        Assert.assertFalse(parsed.containsKey("tiny"));
+    }
+
+}
@@ -0,0 +1,101 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+public class DictionaryDiffTest {
+
+    private static final List<String> OLD_WORDS = Arrays.asList(
+            "abracadabrazy", "abrac", "barca", "barbar", "cabaret", "zzzzz",
+            "lengthened", "lengthen", "tenet", "teeth", "hedge", "ledge", "netted");
+
+    /**
+     * Compute the expected changes by scoring every puzzle under both word lists.
+     */
+    private static Set<String> bruteForce(PuzzleMaster before, PuzzleMaster after) {
+        final Set<Puzzle> allPuzzles = new HashSet<>(before.puzzles);
+        allPuzzles.addAll(after.puzzles);
+        return allPuzzles.stream()
+                .map(puzzle -> new DictionaryDiff.PuzzleChange(
+                        puzzle,
+                        before.puzzles.contains(puzzle)
+                                ? before.aggregateFor(puzzle).score() : DictionaryDiff.ABSENT,
+                        after.puzzles.contains(puzzle)
+                                ? after.aggregateFor(puzzle).score() : DictionaryDiff.ABSENT))
+                .filter(change -> change.scoreBefore != change.scoreAfter)
+                .map(DictionaryDiff.PuzzleChange::toString)
+                .collect(Collectors.toSet());
+    }
+
+    private static void assertMatchesBruteForce(List<String> oldWords, List<String> newWords) {
+        final PuzzleMaster before = new PuzzleMaster(oldWords);
+        final PuzzleMaster after = new PuzzleMaster(newWords);
+        final DictionaryDiff diff = DictionaryDiff.compare(before, after);
+        final List<String> actual = diff.changes.stream()
+                .map(DictionaryDiff.PuzzleChange::toString)
+                .collect(Collectors.toList());
+        Assert.assertEquals(bruteForce(before, after), new HashSet<>(actual));
+        Assert.assertEquals(actual.size(), new HashSet<>(actual).size());
+        final DictionaryDiff compactDiff = DictionaryDiff.compare(
+                PuzzleMaster.compact(oldWords, PuzzleConstraints.NONE, Collections.emptyList()),
+                PuzzleMaster.compact(newWords, PuzzleConstraints.NONE, Collections.emptyList()));
+        Assert.assertArrayEquals(diff.changedVectors, compactDiff.changedVectors);
+        Assert.assertEquals(actual, compactDiff.changes.stream()
+                .map(DictionaryDiff.PuzzleChange::toString)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    public void compare_identicalWordLists_isEmpty() {
+        final DictionaryDiff diff = DictionaryDiff.compare(
+                new PuzzleMaster(OLD_WORDS), new PuzzleMaster(new ArrayList<>(OLD_WORDS)));
+        Assert.assertEquals(0, diff.changedVectors.length);
+        Assert.assertEquals(0, diff.affectedPotCount);
+        Assert.assertEquals(0, diff.changes.size());
+    }
+
+    @Test
+    public void compare_addedWord_changesScores() {
+        final List<String> newWords = new ArrayList<>(OLD_WORDS);
+        newWords.add("length");
+        assertMatchesBruteForce(OLD_WORDS, newWords);
+        final DictionaryDiff diff = DictionaryDiff.compare(
+                new PuzzleMaster(OLD_WORDS), new PuzzleMaster(newWords));
+        Assert.assertArrayEquals(
+                new int[]{Puzzle.characterVector("length".toCharArray())},
+                diff.changedVectors);
+        // "length" is in every "lengthd" puzzle except the one requiring 'd'.
+        Assert.assertEquals(6, diff.changes.size());
+        Assert.assertTrue(diff.changes.stream()
+                .allMatch(c -> c.scoreAfter == c.scoreBefore + 1));
+    }
+
+    @Test
+    public void compare_removedBingo_removesPot() {
+        final List<String> newWords = new ArrayList<>(OLD_WORDS);
+        newWords.remove("lengthened");
+        assertMatchesBruteForce(OLD_WORDS, newWords);
+        final DictionaryDiff diff = DictionaryDiff.compare(
+                new PuzzleMaster(OLD_WORDS), new PuzzleMaster(newWords));
+        Assert.assertEquals(Puzzle.POT_SIZE, diff.changes.size());
+        Assert.assertTrue(diff.changes.stream().allMatch(DictionaryDiff.PuzzleChange::isRemoval));
+    }
+
+    @Test
+    public void compare_shortWordChange_scansPots() {
+        // A vector with a single letter has more supersets than there are pots.
+        final List<String> newWords = new ArrayList<>(OLD_WORDS);
+        newWords.remove("zzzzz");
+        newWords.add("eeeee");
+        newWords.add("abcdefg");
+        assertMatchesBruteForce(OLD_WORDS, newWords);
+        assertMatchesBruteForce(newWords, OLD_WORDS);
+    }
+
+}
@@ -0,0 +1,117 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class DictionaryNormalizerTest {
+
+    private static final List<String> ENTRIES = Arrays.asList(
+            "bedraggles", "waste's", "waste", "Athena's", "Slashdot", " booze ", "siesta",
+            "dairying’s", "Jesus'", "fluff", "booze", "NASA", "conquers");
+
+    private static List<String> normalize(DictionaryNormalizer normalizer, List<String> entries) {
+        final StringWriter out = new StringWriter();
+        final long count;
+        try {
+            count = normalizer.normalize(
+                    new BufferedReader(new StringReader(String.join("\n", entries))), out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        final List<String> words = out.toString().isEmpty() ?
+                Collections.emptyList() : Arrays.asList(out.toString().split("\n"));
+        Assert.assertEquals(words.size(), count);
+        return words;
+    }
+
+    private static List<String> normalize(DictionaryNormalizer normalizer) {
+        return normalize(normalizer, ENTRIES);
+    }
+
+    @Test
+    public void default_keepsWhatPuzzleMasterUses() {
+        final List<String> words = normalize(DictionaryNormalizer.DEFAULT);
+        Assert.assertEquals(
+                Arrays.asList("bedraggles", "waste", "booze", "siesta", "fluff", "conquers"),
+                words);
+        Assert.assertEquals(new PuzzleMaster(ENTRIES).words, new PuzzleMaster(words).words);
+    }
+
+    @Test
+    public void stripPossessivesAndLowercase() {
+        final DictionaryNormalizer normalizer = DictionaryNormalizer.DEFAULT
+                .withPossessivePolicy(DictionaryNormalizer.PossessivePolicy.STRIP)
+                .withCasePolicy(DictionaryNormalizer.CasePolicy.LOWERCASE);
+        Assert.assertEquals(
+                Arrays.asList("bedraggles", "waste", "athena", "slashdot", "booze",
+                        "siesta", "dairying", "jesus", "fluff", "conquers"),
+                normalize(normalizer));
+    }
+
+    @Test
+    public void keepEverything() {
+        final DictionaryNormalizer normalizer = DictionaryNormalizer.DEFAULT
+                .withPossessivePolicy(DictionaryNormalizer.PossessivePolicy.KEEP)
+                .withCasePolicy(DictionaryNormalizer.CasePolicy.KEEP)
+                .withDeduplication(false)
+                .withMinimumLength(0);
+        Assert.assertEquals(
+                ENTRIES.stream().map(String::trim).collect(Collectors.toList()),
+                normalize(normalizer));
+    }
+
+    @Test
+    public void denyListAppliesAfterNormalization() {
+        final DictionaryNormalizer normalizer = DictionaryNormalizer.DEFAULT
+                .withPossessivePolicy(DictionaryNormalizer.PossessivePolicy.STRIP)
+                .withDenied(Arrays.asList("waste", "fluff"))
+                .withDenied(Arrays.asList("booze"));
+        Assert.assertEquals(
+                Arrays.asList("bedraggles", "siesta", "dairying", "conquers"),
+                normalize(normalizer));
+    }
+
+    @Test
+    public void minimumLength() {
+        Assert.assertEquals(
+                Arrays.asList("bedraggles", "conquers"),
+                normalize(DictionaryNormalizer.DEFAULT.withMinimumLength(8)));
+    }
+
+    @Test
+    public void normalize_manyBatches_deduplicatesAcrossBatches() {
+        final List<String> entries = IntStream.range(0, 3 * DictionaryNormalizer.BATCH_SIZE)
+                .mapToObj(i -> "word" + (char) ('a' + i % 26) + (char) ('a' + i / 26 % 26))
+                .collect(Collectors.toList());
+        final List<String> expected = entries.subList(0, 26 * 26);
+        Assert.assertEquals(expected, normalize(DictionaryNormalizer.DEFAULT, entries));
+        Assert.assertEquals(entries, normalize(
+                DictionaryNormalizer.DEFAULT.withDeduplication(false), entries));
+    }
+
+    @Test
+    public void normalize_file() throws IOException {
+        final Path input = Files.createTempFile("words", ".txt");
+        final Path output = Files.createTempFile("normalized", ".txt");
+        input.toFile().deleteOnExit();
+        output.toFile().deleteOnExit();
+        Files.write(input, ENTRIES, StandardCharsets.UTF_8);
+        final long count = DictionaryNormalizer.DEFAULT.normalize(input, output);
+        final List<String> lines = Files.readAllLines(output, StandardCharsets.UTF_8);
+        Assert.assertEquals(normalize(DictionaryNormalizer.DEFAULT), lines);
+        Assert.assertEquals(lines.size(), count);
+    }
+
+}
@@ -0,0 +1,57 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+public class DirectScanSolverTest {
+
+    private static final List<String> WORDS = Arrays.asList(
+            "abracadabrazy", "abrac", "barca", "barbar", "cabaret", "zzzzz", "abrac",
+            "lengthened", "lengthen", "tenet", "teeth", "hedge", "ledge", "netted",
+            "Capital", "hyphen-ated", "tiny", "abcdefgh", "decaf");
+
+    private static List<Set<String>> solve(List<Puzzle> puzzles) throws IOException {
+        return DirectScanSolver.solve(
+                new BufferedReader(new StringReader(String.join("\n", WORDS))), puzzles);
+    }
+
+    @Test
+    public void solve_agreesWithSolutionsTo() throws IOException {
+        final PuzzleMaster pm = new PuzzleMaster(WORDS);
+        final List<Puzzle> puzzles = new ArrayList<>(pm.puzzles);
+        puzzles.add(new Puzzle(
+                Puzzle.characterVector("jkopqsu".toCharArray()),
+                Puzzle.characterVector("q".toCharArray())));
+        final List<Set<String>> solutions = solve(puzzles);
+        Assert.assertEquals(puzzles.size(), solutions.size());
+        for (int i = 0; i < puzzles.size(); i++) {
+            Assert.assertEquals(puzzles.get(i).toString(),
+                    pm.solutionsTo(puzzles.get(i)), solutions.get(i));
+        }
+    }
+
+    @Test
+    public void solve_oversizedPot_agreesWithSolutionsTo() throws IOException {
+        final PuzzleMaster pm = new PuzzleMaster(WORDS);
+        final Puzzle puzzle = new Puzzle(
+                Puzzle.characterVector("abcdefgh".toCharArray()),
+                Puzzle.characterVector("a".toCharArray()));
+        final Set<String> solutions = solve(Collections.singletonList(puzzle)).get(0);
+        Assert.assertTrue(solutions.contains("decaf"));
+        Assert.assertFalse(solutions.contains("abcdefgh"));
+        Assert.assertEquals(pm.solutionsTo(puzzle), solutions);
+    }
+
+    @Test
+    public void solve_noPuzzles() throws IOException {
+        Assert.assertEquals(Collections.emptyList(), solve(Collections.emptyList()));
+    }
+
+}
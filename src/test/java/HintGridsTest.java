@@ -0,0 +1,106 @@
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class HintGridsTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static PuzzleMaster createSmallInstance() {
+        return new PuzzleMaster(Arrays.asList(
+                "abracadabrazy", "abrac", "barca", "barbar", "cabaret", "zzzzz",
+                "lengthened", "lengthen", "tenet", "teeth", "hedge", "ledge", "netted"));
+    }
+
+    private static int rank(Puzzle puzzle, char letter) {
+        return Integer.bitCount(puzzle.potVector & ((1 << (letter - 'a')) - 1));
+    }
+
+    private static void assertMatchesSolutions(PuzzleMaster pm, HintGrids grids) {
+        Assert.assertEquals(pm.puzzles.size(), grids.puzzleCount);
+        for (Puzzle puzzle : pm.puzzles) {
+            final int index = grids.indexOf(puzzle);
+            Assert.assertEquals(puzzle, grids.puzzle(index));
+            final int[][] lengths = new int[Puzzle.POT_SIZE][HintGrids.LENGTH_COLUMNS];
+            final int[][] prefixes = new int[Puzzle.POT_SIZE][Puzzle.POT_SIZE];
+            for (String word : pm.solutionsTo(puzzle)) {
+                final int column = Math.min(word.length() - Puzzle.MINIMUM_WORD_LENGTH,
+                        HintGrids.LENGTH_COLUMNS - 1);
+                lengths[rank(puzzle, word.charAt(0))][column]++;
+                prefixes[rank(puzzle, word.charAt(0))][rank(puzzle, word.charAt(1))]++;
+            }
+            for (int r = 0; r < Puzzle.POT_SIZE; r++) {
+                for (int c = 0; c < HintGrids.LENGTH_COLUMNS; c++) {
+                    Assert.assertEquals(lengths[r][c], grids.lengthCount(index, r, c));
+                }
+                for (int s = 0; s < Puzzle.POT_SIZE; s++) {
+                    Assert.assertEquals(prefixes[r][s], grids.prefixCount(index, r, s));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void build_agreesWithSolutions() {
+        final PuzzleMaster pm = createSmallInstance();
+        assertMatchesSolutions(pm, HintGrids.build(pm));
+    }
+
+    @Test
+    public void writeTo_map_roundTrips() throws IOException {
+        final PuzzleMaster pm = createSmallInstance();
+        final Path path = temporaryFolder.newFile("grids.bin").toPath();
+        HintGrids.build(pm).writeTo(path);
+        assertMatchesSolutions(pm, HintGrids.map(path));
+    }
+
+    @Test
+    public void indexOf_unknownPuzzle() {
+        final HintGrids grids = HintGrids.build(createSmallInstance());
+        Assert.assertEquals(-1, grids.indexOf(new Puzzle(
+                Puzzle.characterVector("jkopqsu".toCharArray()),
+                Puzzle.characterVector("q".toCharArray()))));
+    }
+
+    /**
+     * Create a dictionary of {@code count} nine-letter words over {@code abcdefg}, all starting
+     * with {@code a}, so that one length-grid entry of the puzzle with pot {@code abcdefg} and
+     * required letter {@code a} is {@code count}.
+     */
+    private static PuzzleMaster createLargeBucketInstance(int count) {
+        final List<String> words = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final char[] word = new char[9];
+            word[0] = 'a';
+            for (int j = 1, n = i; j < word.length; j++, n /= 7) {
+                word[j] = (char) ('a' + n % 7);
+            }
+            words.add(new String(word));
+        }
+        return new PuzzleMaster(words);
+    }
+
+    @Test
+    public void build_countsAboveShortRange() {
+        final PuzzleMaster pm = createLargeBucketInstance(40000);
+        final HintGrids grids = HintGrids.build(pm);
+        final int index = grids.indexOf(new Puzzle(
+                Puzzle.characterVector("abcdefg".toCharArray()),
+                Puzzle.characterVector("a".toCharArray())));
+        Assert.assertEquals(40000, grids.lengthCount(index, 0, 9 - Puzzle.MINIMUM_WORD_LENGTH));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void build_countAboveMaximum_throws() {
+        HintGrids.build(createLargeBucketInstance(HintGrids.MAXIMUM_COUNT + 1));
+    }
+
+}
@@ -0,0 +1,73 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+public class LatencyHistogramTest {
+
+    @Test
+    public void bucketOf_upperBoundOf_areConsistent() {
+        final Random rng = new Random(0);
+        for (int i = 0; i < 100000; i++) {
+            final long value = rng.nextLong() >>> (1 + rng.nextInt(Long.SIZE - 1));
+            final int bucket = LatencyHistogram.bucketOf(value);
+            Assert.assertTrue(value <= LatencyHistogram.upperBoundOf(bucket));
+            if (bucket > 0) {
+                Assert.assertTrue(value > LatencyHistogram.upperBoundOf(bucket - 1));
+            }
+        }
+        Assert.assertEquals(Long.MAX_VALUE,
+                LatencyHistogram.upperBoundOf(LatencyHistogram.bucketOf(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void percentile_smallValues_areExact() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 50; i++) {
+            histogram.record(i);
+        }
+        Assert.assertEquals(50, histogram.count());
+        Assert.assertEquals(25, histogram.percentile(0.5));
+        Assert.assertEquals(50, histogram.percentile(0.99));
+        Assert.assertEquals(1, histogram.percentile(0));
+        Assert.assertEquals(50, histogram.maximum());
+    }
+
+    @Test
+    public void percentile_largeValues_haveBoundedRelativeError() {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        for (long i = 1; i <= 100000; i++) {
+            histogram.record(i * 1000);
+        }
+        for (double q : new double[]{0.5, 0.99, 0.999}) {
+            final double exact = Math.ceil(q * 100000) * 1000;
+            final long estimate = histogram.percentile(q);
+            Assert.assertTrue(estimate >= exact);
+            Assert.assertTrue(estimate <= exact * (1 + 1.0 / LatencyHistogram.SUB_BUCKETS));
+        }
+    }
+
+    @Test
+    public void merge_combinesCounts() {
+        final LatencyHistogram a = new LatencyHistogram();
+        final LatencyHistogram b = new LatencyHistogram();
+        a.record(10);
+        b.record(20);
+        b.record(30);
+        a.merge(b);
+        Assert.assertEquals(3, a.count());
+        Assert.assertEquals(30, a.maximum());
+        Assert.assertEquals(20, a.percentile(0.5));
+    }
+
+    @Test
+    public void percentile_empty_isZero() {
+        Assert.assertEquals(0, new LatencyHistogram().percentile(0.99));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void record_negative_throws() {
+        new LatencyHistogram().record(-1);
+    }
+
+}
@@ -0,0 +1,72 @@
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class LetterSetLatticeTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    /**
+     * A lattice over the twelve letters {@code a} through {@code l}.
+     */
+    private LetterSetLattice createSmallInstance(PuzzleMaster pm) throws IOException {
+        final Path path = temporaryFolder.newFile("lattice.bin").toPath();
+        LetterSetLattice.build(pm, 12, path);
+        return LetterSetLattice.map(path);
+    }
+
+    private static PuzzleMaster createPuzzleMaster() {
+        return new PuzzleMaster(Arrays.asList(
+                "abcab", "deface", "faced", "decade", "beaded", "accede", "cabbage",
+                "baggage", "jackdaw", "bleached", "acidified", "hijacked", "lengthened"));
+    }
+
+    @Test
+    public void wordCount_agreesWithBruteForce() throws IOException {
+        final PuzzleMaster pm = createPuzzleMaster();
+        final LetterSetLattice lattice = createSmallInstance(pm);
+        for (int pot = 0; pot < 1 << 12; pot += 7) {
+            for (int required : new int[] { 0, pot & -pot, pot & 0b101010101010 }) {
+                int expected = 0;
+                for (String word : pm.words) {
+                    final int vector = Puzzle.characterVector(word.toCharArray());
+                    if ((vector & ~pot) == 0 && (vector & required) == required) {
+                        expected++;
+                    }
+                }
+                Assert.assertEquals(expected, lattice.wordCount(pot, required));
+            }
+        }
+    }
+
+    @Test
+    public void score_agreesWithAggregates() throws IOException {
+        final PuzzleMaster pm = createPuzzleMaster();
+        final LetterSetLattice lattice = createSmallInstance(pm);
+        for (Puzzle puzzle : pm.puzzles) {
+            if (puzzle.potVector >= 1 << 12) {
+                continue;
+            }
+            final SolutionAggregate aggregate = pm.aggregateFor(puzzle);
+            Assert.assertEquals(aggregate.wordCount,
+                    lattice.wordCount(puzzle.potVector, puzzle.requiredVector));
+            Assert.assertEquals(aggregate.score(),
+                    lattice.score(puzzle.potVector, puzzle.requiredVector));
+        }
+    }
+
+    @Test
+    public void bingoCount_exactVectorsOnly() throws IOException {
+        final LetterSetLattice lattice = createSmallInstance(createPuzzleMaster());
+        Assert.assertEquals(2, lattice.bingoCount(Puzzle.characterVector("acdef".toCharArray())));
+        Assert.assertEquals(0, lattice.bingoCount(Puzzle.characterVector("cdef".toCharArray())));
+        Assert.assertEquals(1, lattice.bingoCount(Puzzle.characterVector("abceg".toCharArray())));
+    }
+
+}
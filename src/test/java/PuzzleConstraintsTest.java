@@ -0,0 +1,51 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PuzzleConstraintsTest {
+
+    private static int vector(String letters) {
+        return Puzzle.characterVector(letters.toCharArray());
+    }
+
+    @Test
+    public void none_allowsEverything() {
+        Assert.assertTrue(PuzzleConstraints.NONE.allowsLetters(vector("abcdefg")));
+        Assert.assertTrue(PuzzleConstraints.NONE.allows(
+                new Puzzle(vector("abcdefg"), vector("a"))));
+        Assert.assertTrue(PuzzleConstraints.parse("").allows(
+                new Puzzle(vector("abcdefg"), vector("a"))));
+    }
+
+    @Test
+    public void parse_representativeRules() {
+        final PuzzleConstraints constraints = PuzzleConstraints.parse("-s, -er,!aeiou");
+        Assert.assertFalse(constraints.allowsLetters(vector("sabcdef")));
+        Assert.assertFalse(constraints.allowsLetters(vector("erabcdf")));
+        Assert.assertTrue(constraints.allowsLetters(vector("eabcdfg")));
+        Assert.assertTrue(constraints.allowsLetters(vector("rabcdfg")));
+        Assert.assertFalse(constraints.allows(new Puzzle(vector("eabcdfg"), vector("e"))));
+        Assert.assertTrue(constraints.allows(new Puzzle(vector("eabcdfg"), vector("b"))));
+        Assert.assertEquals(vector("bcdfg"), constraints.allowedRequiredLetters(vector("eabcdfg")));
+    }
+
+    @Test
+    public void canonicalSpec_isIndependentOfRuleOrder() {
+        final String spec = PuzzleConstraints.parse("-s,-er,!aeiou").canonicalSpec();
+        Assert.assertEquals("-er,-s,!aeiou", spec);
+        Assert.assertEquals(spec, PuzzleConstraints.parse("!ui,-re,-s,!aoe").canonicalSpec());
+        Assert.assertEquals(spec, PuzzleConstraints.parse("-er,-s,-rse,-s,!aeiou").canonicalSpec());
+        Assert.assertEquals(spec, PuzzleConstraints.parse(spec).canonicalSpec());
+        Assert.assertEquals("", PuzzleConstraints.NONE.canonicalSpec());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_unknownRule() {
+        PuzzleConstraints.parse("+s");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parse_invalidLetter() {
+        PuzzleConstraints.parse("-S");
+    }
+
+}
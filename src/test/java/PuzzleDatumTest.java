@@ -8,8 +8,10 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -52,4 +54,73 @@ public class PuzzleDatumTest {
         Assert.assertEquals(4, dataset.get(1).excellent);
         Assert.assertEquals(5, dataset.get(1).genius);
     }
+
+    @Test
+    public void constructor_cachesSolutionCountAndScore() {
+        final Puzzle puzzle = new Puzzle(
+                Puzzle.characterVector("cabdryz".toCharArray()),
+                Puzzle.characterVector("c".toCharArray()));
+        final PuzzleDatum datum = new PuzzleDatum(puzzle,
+                Arrays.asList("abracadabrazy", "abrac", "barca", "barbar"), 2, 3, 4);
+        Assert.assertEquals(4, datum.solutionCount);
+        Assert.assertEquals(6, datum.score);
+    }
+
+    @Test
+    public void createDataset_parallel_preservesOrder() throws IOException {
+        final StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            input.append(String.format("a,bcdefg,%d,%d,%d%n", i, i + 1, i + 2));
+        }
+        final Puzzle puzzle = new Puzzle(
+                Puzzle.characterVector("abcdefg".toCharArray()),
+                Puzzle.characterVector("a".toCharArray()));
+
+        final List<PuzzleDatum> dataset = PuzzleDatum.createDataset(
+                new ByteArrayInputStream(input.toString().getBytes()),
+                p -> Collections.singletonList("abcdefg"),
+                true);
+
+        Assert.assertEquals(1000, dataset.size());
+        for (int i = 0; i < dataset.size(); i++) {
+            Assert.assertEquals(puzzle, dataset.get(i).puzzle);
+            Assert.assertEquals(Collections.singletonList("abcdefg"), dataset.get(i).solutions);
+            Assert.assertEquals(i, dataset.get(i).good);
+            Assert.assertEquals(i + 2, dataset.get(i).genius);
+        }
+    }
+
+    @Test
+    public void createDataset_parallel_malformedRow_failsBeforeSolving() throws IOException {
+        final String input = "a,bcdefg,1,2,3\na,bcdefg,1,two,3\na,bcdefg,1,2\n";
+        final AtomicInteger solved = new AtomicInteger();
+        try {
+            PuzzleDatum.createDataset(
+                    new ByteArrayInputStream(input.getBytes()),
+                    p -> {
+                        solved.incrementAndGet();
+                        return Collections.emptyList();
+                    },
+                    true);
+            Assert.fail();
+        } catch (IllegalArgumentException e) {
+            Assert.assertEquals("Invalid threshold in row: 'a,bcdefg,1,two,3'", e.getMessage());
+        }
+        Assert.assertEquals(0, solved.get());
+    }
+
+    @Test
+    public void constructor_compactSolutions_sharedAndAccurate() {
+        final PuzzleMaster pm = new PuzzleMaster(Arrays.asList(
+                "abracadabrazy", "abrac", "barca", "barbar", "lengthened"));
+        final Puzzle puzzle = new Puzzle(
+                Puzzle.characterVector("cabdryz".toCharArray()),
+                Puzzle.characterVector("a".toCharArray()));
+        final Collection<String> solutions = pm.compactSolutionsTo(puzzle);
+        final PuzzleDatum datum = new PuzzleDatum(puzzle, solutions, 1, 2, 3);
+        Assert.assertSame(solutions, datum.solutions);
+        Assert.assertEquals(pm.solutionsTo(puzzle), new HashSet<>(datum.solutions));
+        Assert.assertEquals(4, datum.solutionCount);
+        Assert.assertEquals(6, datum.score);
+    }
 }
@@ -0,0 +1,74 @@
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+public class PuzzleExporterTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static PuzzleMaster createSmallInstance() {
+        return new PuzzleMaster(
+                Arrays.asList(
+                        "abracadabrazy", "abrac", "barca", "barbar", "zzzzz",
+                        "lengthened", "lengthen", "tenet", "teeth"),
+                Collections.singletonList(word -> 1.0));
+    }
+
+    @Test
+    public void writeBinary_roundTripsThroughMappedExport() throws IOException {
+        final PuzzleMaster pm = createSmallInstance();
+        // good = 1 + 2 * (word count), delta = 3
+        final RatingModel ratingModel = new RatingModel(1, 2, 3, 0);
+        final Path path = temporaryFolder.newFile("export.bin").toPath();
+        PuzzleExporter.writeBinary(pm, ratingModel, path);
+
+        final MappedPuzzleExport export = MappedPuzzleExport.map(path);
+        Assert.assertEquals(pm.words.size(), export.wordCount);
+        Assert.assertEquals(pm.puzzles.size(), export.puzzleCount);
+        for (int i = 0; i < export.wordCount; i++) {
+            Assert.assertEquals(pm.word(i), export.word(i));
+        }
+        for (int i = 0; i < export.puzzleCount; i++) {
+            final Puzzle puzzle = pm.puzzles.get(i);
+            Assert.assertEquals(puzzle, export.puzzle(i));
+            final Set<String> solutions = new HashSet<>();
+            for (int id : export.solutionIds(i)) {
+                solutions.add(export.word(id));
+            }
+            Assert.assertEquals(pm.solutionsTo(puzzle), solutions);
+            Assert.assertEquals(Puzzle.score(solutions), export.score(i));
+            Assert.assertEquals(1 + 2 * solutions.size(), export.good(i));
+            Assert.assertEquals(4 + 2 * solutions.size(), export.excellent(i));
+            Assert.assertEquals(7 + 2 * solutions.size(), export.genius(i));
+        }
+    }
+
+    private Path writeTruncatedExport(int bytesRemoved) throws IOException {
+        final Path path = temporaryFolder.newFile("export.bin").toPath();
+        PuzzleExporter.writeBinary(createSmallInstance(), new RatingModel(1, 2, 3, 0), path);
+        final byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, Math.max(0, bytes.length - bytesRemoved)));
+        return path;
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void map_emptyFile_throws() throws IOException {
+        MappedPuzzleExport.map(writeTruncatedExport(Integer.MAX_VALUE));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void map_missingLastSolution_throws() throws IOException {
+        MappedPuzzleExport.map(writeTruncatedExport(4));
+    }
+
+}
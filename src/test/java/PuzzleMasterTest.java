@@ -1,10 +1,15 @@
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
 
 public class PuzzleMasterTest {
 
@@ -137,4 +142,312 @@ public class PuzzleMasterTest {
         Assert.assertEquals(Collections.emptySet(), pm.solutionsTo(puzzle));
     }
 
+    @Test
+    public void aggregateFor_agreesWithSolutionsTo() {
+        final PuzzleMaster pm = new PuzzleMaster(
+                createSmallInstance().words,
+                Collections.singletonList(word -> word.length()));
+        for (Puzzle puzzle : pm.puzzles) {
+            final Set<String> solutions = pm.solutionsTo(puzzle);
+            final SolutionAggregate aggregate = pm.aggregateFor(puzzle);
+            Assert.assertEquals(puzzle.toString(), solutions.size(), aggregate.wordCount);
+            Assert.assertEquals(puzzle.toString(), Puzzle.score(solutions), aggregate.score());
+            Assert.assertEquals(puzzle.toString(),
+                    solutions.stream().mapToInt(String::length).sum(),
+                    aggregate.weightSum(0), 1e-9);
+        }
+    }
+
+    @Test
+    public void aggregateFor_reusedAggregate_agreesWithFreshAggregate() {
+        final PuzzleMaster pm = new PuzzleMaster(
+                createSmallInstance().words,
+                Collections.singletonList(word -> word.length()));
+        final SolutionAggregate reused = new SolutionAggregate(1);
+        for (Puzzle puzzle : pm.puzzles) {
+            final SolutionAggregate expected = pm.aggregateFor(puzzle);
+            Assert.assertSame(reused, pm.aggregateFor(puzzle, reused));
+            Assert.assertEquals(puzzle.toString(), expected.wordCount, reused.wordCount);
+            Assert.assertEquals(puzzle.toString(), expected.bingoCount, reused.bingoCount);
+            Assert.assertEquals(puzzle.toString(),
+                    expected.weightSum(0), reused.weightSum(0), 0);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void aggregateFor_wrongWeightCount_throws() {
+        final PuzzleMaster pm = createSmallInstance();
+        pm.aggregateFor(pm.puzzles.get(0), new SolutionAggregate(1));
+    }
+
+    @Test
+    public void compactSolutionsTo_agreesWithSolutionsTo() {
+        final PuzzleMaster pm = createSmallInstance();
+        for (Puzzle puzzle : pm.puzzles) {
+            final Set<String> expected = pm.solutionsTo(puzzle);
+            final Set<String> actual = pm.compactSolutionsTo(puzzle);
+            Assert.assertEquals(puzzle.toString(), expected.size(), actual.size());
+            Assert.assertEquals(puzzle.toString(), expected, actual);
+            Assert.assertEquals(puzzle.toString(), expected.hashCode(), actual.hashCode());
+            Assert.assertEquals(puzzle.toString(), Puzzle.score(expected), Puzzle.score(actual));
+            for (String word : pm.words) {
+                Assert.assertEquals(expected.contains(word), actual.contains(word));
+            }
+        }
+    }
+
+    @Test
+    public void compactSolutionsTo_iteratesInWordIdOrder() {
+        final PuzzleMaster pm = createSmallInstance();
+        for (Puzzle puzzle : pm.puzzles) {
+            final int[] ids = pm.solutionIdsTo(puzzle);
+            Arrays.sort(ids);
+            final List<String> expected = Arrays.stream(ids)
+                    .mapToObj(pm::word)
+                    .collect(Collectors.toList());
+            Assert.assertEquals(puzzle.toString(),
+                    expected, new ArrayList<>(pm.compactSolutionsTo(puzzle)));
+        }
+    }
+
+    @Test
+    public void compactSolutionsTo_containsIsExact() {
+        final PuzzleMaster pm = createSmallInstance();
+        final Set<String> solutions = pm.compactSolutionsTo(new Puzzle(
+                Puzzle.characterVector("abrcdzy".toCharArray()),
+                Puzzle.characterVector("c".toCharArray())));
+        Assert.assertTrue(solutions.contains("abrac"));
+        Assert.assertFalse(solutions.contains("ABRAC"));
+        Assert.assertFalse(solutions.contains("barbar"));
+        Assert.assertFalse(solutions.contains("cabra"));
+        Assert.assertFalse(solutions.contains(null));
+        Assert.assertFalse(solutions.contains(42));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void compactSolutionsTo_isImmutable() {
+        final PuzzleMaster pm = createSmallInstance();
+        pm.compactSolutionsTo(pm.puzzles.get(0)).add("abrac");
+    }
+
+    @Test
+    public void compactSolutionsTo_noSolutions() {
+        final PuzzleMaster pm = createSmallInstance();
+        final Set<String> solutions = pm.compactSolutionsTo(new Puzzle(
+                Puzzle.characterVector("jkopqsu".toCharArray()),
+                Puzzle.characterVector("q".toCharArray())));
+        Assert.assertEquals(Collections.emptySet(), solutions);
+        Assert.assertFalse(solutions.iterator().hasNext());
+        Assert.assertEquals(0, Puzzle.score(solutions));
+    }
+
+    @Test
+    public void aggregateFor_noSolutions() {
+        final PuzzleMaster pm = createSmallInstance();
+        final SolutionAggregate aggregate = pm.aggregateFor(new Puzzle(
+                Puzzle.characterVector("jkopqsu".toCharArray()),
+                Puzzle.characterVector("q".toCharArray())));
+        Assert.assertEquals(0, aggregate.wordCount);
+        Assert.assertEquals(0, aggregate.bingoCount);
+        Assert.assertEquals(0, aggregate.score());
+    }
+
+    @Test
+    public void packedPuzzles_agreeWithPuzzles() {
+        final PuzzleMaster pm = createSmallInstance();
+        Assert.assertEquals(pm.puzzles.size(), pm.packedPuzzleCount());
+        final int[] scores = pm.scoresByPackedIndex();
+        for (int i = 0; i < pm.packedPuzzleCount(); i++) {
+            if (i > 0) {
+                Assert.assertTrue(pm.packedPuzzle(i - 1) < pm.packedPuzzle(i));
+            }
+            final Puzzle puzzle = PuzzleMaster.unpack(pm.packedPuzzle(i));
+            Assert.assertTrue(pm.puzzles.contains(puzzle));
+            Assert.assertEquals(pm.packedPuzzle(i), PuzzleMaster.pack(puzzle));
+            Assert.assertEquals(pm.aggregateFor(puzzle).score(), scores[i]);
+        }
+    }
+
+    @Test
+    public void bucketIndicesFor_findsBucketsOfSolutions() {
+        final PuzzleMaster pm = createSmallInstance();
+        for (final Puzzle puzzle : pm.puzzles) {
+            final int optionalVector = puzzle.potVector & ~puzzle.requiredVector;
+            final int[] bucketIndices = new int[1 << Integer.bitCount(optionalVector)];
+            final int bucketCount =
+                    pm.bucketIndicesFor(puzzle.requiredVector, optionalVector, bucketIndices);
+            final Set<String> words = new HashSet<>();
+            for (int i = 0; i < bucketCount; i++) {
+                final int index = bucketIndices[i];
+                for (int id = pm.bucketStart(index); id < pm.bucketStart(index + 1); id++) {
+                    words.add(pm.word(id));
+                }
+            }
+            Assert.assertEquals(pm.solutionsTo(puzzle), words);
+        }
+    }
+
+    @Test
+    public void pack_highestLetters_isNonNegative() {
+        final Puzzle puzzle = new Puzzle(
+                Puzzle.characterVector("tuvwxyz".toCharArray()),
+                Puzzle.characterVector("z".toCharArray()));
+        Assert.assertTrue(PuzzleMaster.pack(puzzle) > 0);
+        Assert.assertEquals(puzzle, PuzzleMaster.unpack(PuzzleMaster.pack(puzzle)));
+    }
+
+    @Test
+    public void orderedSolutionIdsTo_isInDisplayOrder() {
+        final PuzzleMaster pm = createSmallInstance();
+        final Comparator<String> displayOrder = Comparator
+                .comparingInt((String w) -> Integer.bitCount(
+                        Puzzle.characterVector(w.toCharArray())))
+                .reversed()
+                .thenComparing(PuzzleMaster.WORD_ID_ORDER);
+        for (Puzzle puzzle : pm.puzzles) {
+            final List<String> expected = pm.solutionsTo(puzzle).stream()
+                    .sorted(displayOrder)
+                    .collect(Collectors.toList());
+            Assert.assertEquals(puzzle.toString(),
+                    expected, new ArrayList<>(pm.orderedSolutionsTo(puzzle)));
+        }
+    }
+
+    @Test
+    public void validate_verdicts() {
+        final PuzzleMaster pm = createSmallInstance();
+        final Puzzle puzzle = new Puzzle(
+                Puzzle.characterVector("abrcdzy".toCharArray()),
+                Puzzle.characterVector("c".toCharArray()));
+        Assert.assertEquals(GuessVerdict.ACCEPTED, pm.validate(puzzle, "abrac"));
+        Assert.assertEquals(GuessVerdict.ACCEPTED, pm.validate(puzzle, "BarCa"));
+        Assert.assertEquals(GuessVerdict.ACCEPTED,
+                pm.validate(puzzle, new StringBuilder("abracadabrazy")));
+        Assert.assertEquals(GuessVerdict.TOO_SHORT, pm.validate(puzzle, "abra"));
+        Assert.assertEquals(GuessVerdict.LETTER_NOT_IN_POT, pm.validate(puzzle, "abracx"));
+        Assert.assertEquals(GuessVerdict.LETTER_NOT_IN_POT, pm.validate(puzzle, "abra-c"));
+        Assert.assertEquals(GuessVerdict.MISSING_REQUIRED_LETTER, pm.validate(puzzle, "barbar"));
+        Assert.assertEquals(GuessVerdict.NOT_IN_WORD_LIST, pm.validate(puzzle, "cabra"));
+        Assert.assertEquals(GuessVerdict.NOT_IN_WORD_LIST, pm.validate(puzzle, "abraca"));
+    }
+
+    @Test
+    public void solutionIdOf_agreesWithSolutionIdsTo() {
+        final PuzzleMaster pm = createSmallInstance();
+        for (Puzzle puzzle : pm.puzzles) {
+            for (int id : pm.solutionIdsTo(puzzle)) {
+                Assert.assertEquals(id, pm.solutionIdOf(puzzle, pm.word(id)));
+            }
+        }
+        final Puzzle puzzle = new Puzzle(
+                Puzzle.characterVector("lengthd".toCharArray()),
+                Puzzle.characterVector("d".toCharArray()));
+        Assert.assertEquals(-1, pm.solutionIdOf(puzzle, "lengthen"));
+    }
+
+    @Test
+    public void bingosFor_simple() {
+        final PuzzleMaster pm = new PuzzleMaster(Arrays.asList(
+                "abracadabrazy", "zyabracadabra", "abrac", "lengthened"));
+        final int pot = Puzzle.characterVector("abrcdzy".toCharArray());
+        Assert.assertEquals(
+                new HashSet<>(Arrays.asList("abracadabrazy", "zyabracadabra")),
+                new HashSet<>(pm.bingosFor(pot)));
+        Assert.assertEquals(2, pm.bingoCount(pot));
+        Assert.assertEquals(0, pm.bingoCount(Puzzle.characterVector("jkopqsu".toCharArray())));
+        Assert.assertTrue(pm.bingosFor(Puzzle.characterVector("jkopqsu".toCharArray())).isEmpty());
+    }
+
+    @Test
+    public void potsByBingoCount_mostBingosFirst() {
+        final PuzzleMaster pm = new PuzzleMaster(Arrays.asList(
+                "abracadabrazy", "lengthened", "lengthdened", "zyabracadabra", "dengthlened"));
+        Assert.assertArrayEquals(
+                new int[] {
+                        Puzzle.characterVector("lengthd".toCharArray()),
+                        Puzzle.characterVector("abrcdzy".toCharArray()),
+                },
+                pm.potsByBingoCount().toArray());
+    }
+
+    @Test
+    public void compact_agreesWithStringStorage() {
+        final List<ToDoubleFunction<String>> weights =
+                Collections.singletonList(String::length);
+        final PuzzleMaster expected = new PuzzleMaster(
+                createSmallInstance().words, PuzzleConstraints.NONE, weights);
+        final PuzzleMaster actual = PuzzleMaster.compact(
+                createSmallInstance().words, PuzzleConstraints.NONE, weights);
+        Assert.assertEquals(expected.words, actual.words);
+        Assert.assertEquals(expected.words.size(), actual.words.size());
+        Assert.assertEquals(expected.wordsByVector, actual.wordsByVector);
+        Assert.assertEquals(expected.pots, actual.pots);
+        Assert.assertEquals(expected.puzzles, actual.puzzles);
+        for (int id = 0; id < expected.words.size(); id++) {
+            Assert.assertEquals(expected.word(id), actual.word(id));
+        }
+        for (Puzzle puzzle : expected.puzzles) {
+            Assert.assertEquals(expected.solutionsTo(puzzle), actual.solutionsTo(puzzle));
+            Assert.assertEquals(
+                    new ArrayList<>(expected.compactSolutionsTo(puzzle)),
+                    new ArrayList<>(actual.compactSolutionsTo(puzzle)));
+            Assert.assertEquals(
+                    new ArrayList<>(expected.orderedSolutionsTo(puzzle)),
+                    new ArrayList<>(actual.orderedSolutionsTo(puzzle)));
+            Assert.assertEquals(
+                    new ArrayList<>(expected.bingosFor(puzzle.potVector)),
+                    new ArrayList<>(actual.bingosFor(puzzle.potVector)));
+            Assert.assertEquals(
+                    expected.aggregateFor(puzzle).score(), actual.aggregateFor(puzzle).score());
+            Assert.assertEquals(expected.aggregateFor(puzzle).weightSum(0),
+                    actual.aggregateFor(puzzle).weightSum(0), 0);
+            for (int id : expected.solutionIdsTo(puzzle)) {
+                Assert.assertEquals(id, actual.solutionIdOf(puzzle, expected.word(id)));
+            }
+        }
+    }
+
+    @Test
+    public void compact_wordsByVector_isReadOnlyView() {
+        final PuzzleMaster pm = PuzzleMaster.compact(
+                createSmallInstance().words, PuzzleConstraints.NONE, Collections.emptyList());
+        final int vector = Puzzle.characterVector("abrc".toCharArray());
+        Assert.assertTrue(pm.wordsByVector.containsKey(vector));
+        Assert.assertEquals(
+                new HashSet<>(Arrays.asList("abrac", "barca")), pm.wordsByVector.get(vector));
+        Assert.assertNull(pm.wordsByVector.get(Puzzle.characterVector("q".toCharArray())));
+        Assert.assertNull(pm.wordsByVector.get("abrc"));
+        Assert.assertTrue(pm.words.contains("lengthened"));
+        Assert.assertFalse(pm.words.contains("then"));
+        Assert.assertEquals(GuessVerdict.ACCEPTED, pm.validate(new Puzzle(
+                Puzzle.characterVector("abrcdzy".toCharArray()),
+                Puzzle.characterVector("c".toCharArray())), "BarCa"));
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void compact_words_isImmutable() {
+        PuzzleMaster.compact(
+                createSmallInstance().words, PuzzleConstraints.NONE, Collections.emptyList())
+                .words.add("abrac");
+    }
+
+    @Test
+    public void constructor_withConstraints_prunesWordsPotsAndPuzzles() {
+        final PuzzleMaster pm = new PuzzleMaster(
+                createSmallInstance().words,
+                PuzzleConstraints.parse("-z,!aeiou"),
+                Collections.emptyList());
+        Assert.assertEquals(
+                new HashSet<>(Arrays.asList(
+                        "abrac", "barca", "barbar", "lengthened", "lengthen")),
+                pm.words);
+        Assert.assertEquals(
+                Collections.singleton(Puzzle.characterVector("lengthd".toCharArray())),
+                pm.pots);
+        Assert.assertEquals(6, pm.puzzles.size());
+        for (Puzzle puzzle : pm.puzzles) {
+            Assert.assertTrue(puzzle.toString(), pm.constraints.allows(puzzle));
+        }
+    }
+
 }
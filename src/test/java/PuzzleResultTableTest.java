@@ -0,0 +1,196 @@
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class PuzzleResultTableTest {
+
+    @Rule
+    public final TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private static PuzzleMaster createSmallInstance() {
+        return new PuzzleMaster(Arrays.asList(
+                "abracadabrazy", "abrac", "barca", "barbar", "cabaret", "zzzzz",
+                "lengthened", "lengthen", "tenet", "teeth", "hedge", "ledge", "netted"),
+                Collections.singletonList(String::length));
+    }
+
+    private static void assertMatchesAggregates(PuzzleMaster pm, PuzzleResultTable table) {
+        Assert.assertEquals(pm.puzzles.size(), table.puzzleCount);
+        for (Puzzle puzzle : pm.puzzles) {
+            final int index = table.indexOf(puzzle);
+            Assert.assertEquals(puzzle, table.puzzle(index));
+            final SolutionAggregate aggregate = pm.aggregateFor(puzzle);
+            Assert.assertEquals(aggregate.wordCount, table.wordCount(index));
+            Assert.assertEquals(aggregate.score(), table.score(index));
+            Assert.assertEquals(aggregate.weightSum(0), table.accessibility(index), 0);
+        }
+        Assert.assertEquals(-1, table.indexOf(new Puzzle(0x7f, 0x1)));
+    }
+
+    @Test
+    public void build_agreesWithAggregates() {
+        final PuzzleMaster pm = createSmallInstance();
+        final RatingModel model = new RatingModel(1, 2, 3, 4);
+        final PuzzleResultTable table =
+                PuzzleResultTable.build(pm, model, aggregate -> aggregate.weightSum(0));
+        assertMatchesAggregates(pm, table);
+        Assert.assertEquals(1, table.ratingModel.goodIntercept, 0);
+        Assert.assertEquals(2, table.ratingModel.goodSlope, 0);
+        Assert.assertEquals(3, table.ratingModel.deltaIntercept, 0);
+        Assert.assertEquals(4, table.ratingModel.deltaSlope, 0);
+    }
+
+    @Test
+    public void writeTo_map_roundTrips() throws IOException {
+        final PuzzleMaster pm = createSmallInstance();
+        final Path path = temporaryFolder.getRoot().toPath().resolve("results.bin");
+        PuzzleResultTable.build(pm, new RatingModel(0.5, 0.25, -1, 0.125),
+                aggregate -> aggregate.weightSum(0)).writeTo(path);
+        final PuzzleResultTable table = PuzzleResultTable.map(path);
+        assertMatchesAggregates(pm, table);
+        Assert.assertEquals(0.5, table.ratingModel.goodIntercept, 0);
+        Assert.assertEquals(0.125, table.ratingModel.deltaSlope, 0);
+        Assert.assertEquals(1, Files.list(temporaryFolder.getRoot().toPath()).count());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void map_otherFile_throws() throws IOException {
+        final Path path = temporaryFolder.newFile("other.bin").toPath();
+        Files.write(path, new byte[64]);
+        PuzzleResultTable.map(path);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void map_emptyFile_throws() throws IOException {
+        PuzzleResultTable.map(temporaryFolder.newFile("empty.bin").toPath());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void map_truncatedHeader_throws() throws IOException {
+        final Path path = temporaryFolder.getRoot().toPath().resolve("results.bin");
+        PuzzleResultTable.build(createSmallInstance(), new RatingModel(1, 2, 3, 4),
+                aggregate -> aggregate.weightSum(0)).writeTo(path);
+        Files.write(path, Arrays.copyOf(Files.readAllBytes(path), 10));
+        PuzzleResultTable.map(path);
+    }
+
+    @Test
+    public void mergeShards_unreadableShard_isCacheMiss() throws IOException {
+        final PuzzleMaster pm = createSmallInstance();
+        final Path directory = temporaryFolder.getRoot().toPath();
+        buildShard(pm, 0, 2).writeTo(directory.resolve("key.shard-0-of-2.bin"));
+        buildShard(pm, 1, 2).writeTo(directory.resolve("key.shard-1-of-2.bin"));
+        Assert.assertNotNull(PuzzleGenerator.mergeShards(directory, "key"));
+        Files.write(directory.resolve("key.shard-1-of-2.bin"), new byte[0]);
+        Assert.assertNull(PuzzleGenerator.mergeShards(directory, "key"));
+    }
+
+    @Test
+    public void cacheKey_dependsOnContentsAndParameters() throws IOException {
+        final Path a = temporaryFolder.newFile("a.txt").toPath();
+        final Path b = temporaryFolder.newFile("b.txt").toPath();
+        Files.write(a, "abc".getBytes(StandardCharsets.UTF_8));
+        Files.write(b, "def".getBytes(StandardCharsets.UTF_8));
+        final String key = PuzzleResultTable.cacheKey(Arrays.asList(a, b), "x");
+        Assert.assertEquals(64, key.length());
+        Assert.assertEquals(key, PuzzleResultTable.cacheKey(Arrays.asList(a, b), "x"));
+        Assert.assertNotEquals(key, PuzzleResultTable.cacheKey(Arrays.asList(a, b), "y"));
+        Assert.assertNotEquals(key, PuzzleResultTable.cacheKey(Arrays.asList(b, a), "x"));
+
+        // Moving content from one file to the next changes the key.
+        Files.write(a, "abcd".getBytes(StandardCharsets.UTF_8));
+        Files.write(b, "ef".getBytes(StandardCharsets.UTF_8));
+        Assert.assertNotEquals(key, PuzzleResultTable.cacheKey(Arrays.asList(a, b), "x"));
+    }
+
+    private static PuzzleResultTable buildShard(PuzzleMaster pm, int shard, int shardCount) {
+        return PuzzleResultTable.build(pm, new RatingModel(1, 2, 3, 4),
+                aggregate -> aggregate.weightSum(0), shard, shardCount);
+    }
+
+    private byte[] bytesOf(PuzzleResultTable table) throws IOException {
+        final Path path = temporaryFolder.newFile().toPath();
+        table.writeTo(path);
+        return Files.readAllBytes(path);
+    }
+
+    @Test
+    public void build_shardsPartitionPuzzlesByPot() {
+        final Random random = new Random(0);
+        final List<String> words = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            words.add(random.ints(7, 'a', 'm')
+                    .collect(StringBuilder::new, StringBuilder::appendCodePoint,
+                            StringBuilder::append)
+                    .toString());
+        }
+        final PuzzleMaster pm =
+                new PuzzleMaster(words, Collections.singletonList(String::length));
+        final int shardCount = 3;
+        int total = 0;
+        for (int shard = 0; shard < shardCount; shard++) {
+            final PuzzleResultTable table = buildShard(pm, shard, shardCount);
+            Assert.assertEquals(shard, table.shard);
+            Assert.assertEquals(shardCount, table.shardCount);
+            // Shards should be roughly balanced.
+            Assert.assertTrue(table.puzzleCount > pm.puzzles.size() / 4);
+            for (int i = 0; i < table.puzzleCount; i++) {
+                Assert.assertEquals(shard,
+                        PuzzleResultTable.shardOf(table.puzzle(i).potVector, shardCount));
+            }
+            total += table.puzzleCount;
+        }
+        Assert.assertEquals(pm.puzzles.size(), total);
+    }
+
+    @Test
+    public void merge_reproducesCompleteTable() throws IOException {
+        final PuzzleMaster pm = createSmallInstance();
+        final byte[] expected = bytesOf(buildShard(pm, 0, 1));
+        for (int shardCount = 1; shardCount <= 5; shardCount++) {
+            final List<PuzzleResultTable> parts = new ArrayList<>();
+            for (int shard = shardCount - 1; shard >= 0; shard--) {
+                final Path path = temporaryFolder.newFile().toPath();
+                buildShard(pm, shard, shardCount).writeTo(path);
+                parts.add(PuzzleResultTable.map(path));
+            }
+            final PuzzleResultTable merged = PuzzleResultTable.merge(parts);
+            Assert.assertEquals(1, merged.shardCount);
+            assertMatchesAggregates(pm, merged);
+            Assert.assertArrayEquals(expected, bytesOf(merged));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void merge_missingShard_throws() {
+        final PuzzleMaster pm = createSmallInstance();
+        PuzzleResultTable.merge(Arrays.asList(buildShard(pm, 0, 3), buildShard(pm, 2, 3)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void merge_repeatedShard_throws() {
+        final PuzzleMaster pm = createSmallInstance();
+        PuzzleResultTable.merge(Arrays.asList(buildShard(pm, 0, 2), buildShard(pm, 0, 2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void merge_differentRatingModels_throws() {
+        final PuzzleMaster pm = createSmallInstance();
+        PuzzleResultTable.merge(Arrays.asList(
+                buildShard(pm, 0, 2),
+                PuzzleResultTable.build(pm, new RatingModel(1, 2, 3, 5),
+                        aggregate -> aggregate.weightSum(0), 1, 2)));
+    }
+
+}
@@ -0,0 +1,81 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+public class PuzzleSamplerTest {
+
+    /**
+     * Create a dictionary with one bingo for each of many pots, with a varying number of
+     * shorter words so that puzzles differ in score.
+     */
+    private static PuzzleMaster createInstance() {
+        final String alphabet = "abcdefghijklmnopqrstuvwxyz";
+        final List<String> words = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final String pot = (alphabet + alphabet).substring(i, i + Puzzle.POT_SIZE);
+            words.add(pot);
+            for (int j = 0; j < i % 5; j++) {
+                words.add(pot.substring(j, j + 2) + pot.substring(j, j + 3));
+            }
+        }
+        return new PuzzleMaster(words);
+    }
+
+    @Test
+    public void sampleByTercile_drawsDistinctPotsOrderedByAccessibility() {
+        final PuzzleMaster pm = createInstance();
+        final PuzzleSampler sampler = new PuzzleSampler(pm, aggregate -> aggregate.wordCount);
+        final List<List<Puzzle>> terciles =
+                sampler.sampleByTercile(4, 0, Integer.MAX_VALUE, new Random(0));
+        Assert.assertEquals(3, terciles.size());
+        final Set<Integer> pots = new HashSet<>();
+        int previousMinimum = Integer.MAX_VALUE;
+        for (List<Puzzle> tercile : terciles) {
+            Assert.assertTrue(tercile.size() <= 4);
+            int maximum = Integer.MIN_VALUE;
+            int minimum = Integer.MAX_VALUE;
+            for (Puzzle puzzle : tercile) {
+                Assert.assertTrue(pm.puzzles.contains(puzzle));
+                Assert.assertTrue(pots.add(puzzle.potVector));
+                maximum = Math.max(maximum, pm.aggregateFor(puzzle).wordCount);
+                minimum = Math.min(minimum, pm.aggregateFor(puzzle).wordCount);
+            }
+            Assert.assertTrue(maximum <= previousMinimum);
+            previousMinimum = minimum;
+        }
+        Assert.assertEquals(4, terciles.get(0).size());
+    }
+
+    @Test
+    public void sampleByTercile_respectsScoreRange() {
+        final PuzzleMaster pm = createInstance();
+        final PuzzleSampler sampler = new PuzzleSampler(pm, aggregate -> aggregate.wordCount);
+        final List<List<Puzzle>> terciles = sampler.sampleByTercile(10, 5, 6, new Random(1));
+        int total = 0;
+        for (List<Puzzle> tercile : terciles) {
+            for (Puzzle puzzle : tercile) {
+                final int score = pm.aggregateFor(puzzle).score();
+                Assert.assertTrue(5 <= score && score <= 6);
+                total++;
+            }
+        }
+        // Only pots with at least two shorter words can have puzzles scoring 5 or more.
+        Assert.assertTrue(total > 0);
+    }
+
+    @Test
+    public void sampleByTercile_stopsWhenPotsRunOut() {
+        final PuzzleMaster pm = createInstance();
+        final PuzzleSampler sampler = new PuzzleSampler(pm, aggregate -> aggregate.wordCount);
+        final List<List<Puzzle>> terciles =
+                sampler.sampleByTercile(100, 0, Integer.MAX_VALUE, new Random(2));
+        Assert.assertEquals(pm.pots.size(),
+                terciles.stream().mapToInt(List::size).sum());
+    }
+
+}
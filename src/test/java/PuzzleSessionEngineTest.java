@@ -0,0 +1,84 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class PuzzleSessionEngineTest {
+
+    private static PuzzleSessionEngine createEngine(int capacity) {
+        final PuzzleMaster pm = new PuzzleMaster(Arrays.asList(
+                "abracadabrazy", "abrac", "barca", "barbar", "zzzzz", "lengthened"));
+        final Puzzle puzzle = new Puzzle(
+                Puzzle.characterVector("abrcdzy".toCharArray()),
+                Puzzle.characterVector("a".toCharArray()));
+        // Solutions: abracadabrazy (3), abrac (1), barca (1), barbar (1).
+        return new PuzzleSessionEngine(
+                pm, new PuzzleDatum(puzzle, pm.solutionsTo(puzzle), 2, 4, 6), capacity);
+    }
+
+    @Test
+    public void submit_tracksScoreAndRank() {
+        final PuzzleSessionEngine engine = createEngine(2);
+        final int session = engine.openSession();
+        Assert.assertEquals(4, engine.solutionCount());
+        Assert.assertEquals(Rank.NONE, engine.rank(session));
+
+        Assert.assertEquals(GuessVerdict.ACCEPTED, engine.submit(session, "barca"));
+        Assert.assertEquals(GuessVerdict.ALREADY_FOUND, engine.submit(session, "BARCA"));
+        Assert.assertEquals(GuessVerdict.NOT_IN_WORD_LIST, engine.submit(session, "cabra"));
+        Assert.assertEquals(GuessVerdict.TOO_SHORT, engine.submit(session, "bar"));
+        Assert.assertEquals(1, engine.score(session));
+        Assert.assertEquals(Rank.NONE, engine.rank(session));
+
+        Assert.assertEquals(GuessVerdict.ACCEPTED, engine.submit(session, "abracadabrazy"));
+        Assert.assertEquals(4, engine.score(session));
+        Assert.assertEquals(Rank.EXCELLENT, engine.rank(session));
+        Assert.assertEquals(2, engine.foundCount(session));
+
+        final int other = engine.openSession();
+        Assert.assertEquals(0, engine.score(other));
+        Assert.assertEquals(GuessVerdict.ACCEPTED, engine.submit(other, "barca"));
+    }
+
+    @Test
+    public void openSession_recyclesClosedSessions() {
+        final PuzzleSessionEngine engine = createEngine(1);
+        final int session = engine.openSession();
+        engine.submit(session, "barbar");
+        try {
+            engine.openSession();
+            Assert.fail("expected capacity to be exhausted");
+        } catch (IllegalStateException expected) {
+        }
+        engine.closeSession(session);
+        final int reopened = engine.openSession();
+        Assert.assertEquals(0, engine.score(reopened));
+        Assert.assertEquals(0, engine.foundCount(reopened));
+    }
+
+    @Test
+    public void submit_concurrentGuesses_countEachWordOnce() throws InterruptedException {
+        final PuzzleSessionEngine engine = createEngine(1);
+        final int session = engine.openSession();
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    for (int index = 0; index < engine.solutionCount(); index++) {
+                        engine.submit(session, engine.solution(index));
+                    }
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        Assert.assertEquals(6, engine.score(session));
+        Assert.assertEquals(Rank.GENIUS, engine.rank(session));
+        Assert.assertEquals(4, engine.foundCount(session));
+    }
+
+}
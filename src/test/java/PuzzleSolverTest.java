@@ -0,0 +1,95 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class PuzzleSolverTest {
+
+    private static PuzzleMaster createSmallInstance() {
+        return new PuzzleMaster(Arrays.asList(
+                "abracadabrazy", "abrac", "barca", "barbar", "cabaret", "zzzzz",
+                "lengthened", "lengthen", "tenet", "teeth", "hedge", "ledge", "netted"));
+    }
+
+    private static String solveBatch(String input, boolean json) throws IOException {
+        final StringWriter out = new StringWriter();
+        PuzzleSolver.solveBatch(
+                createSmallInstance(), new BufferedReader(new StringReader(input)), out, json);
+        return out.toString();
+    }
+
+    @Test
+    public void solveBatch_json() throws IOException {
+        final String output = solveBatch(
+                "# required,optional\nc abrdyz\n\nd,eghlnt,7,12,17\nq\n", true);
+        Assert.assertEquals(String.join("\n",
+                "{\"line\":2,\"required\":\"c\",\"optional\":\"abdryz\",\"score\":5,"
+                        + "\"solutions\":[\"abracadabrazy\",\"abrac\",\"barca\"]}",
+                "{\"line\":4,\"required\":\"d\",\"optional\":\"eghlnt\",\"score\":6,"
+                        + "\"solutions\":[\"lengthened\",\"netted\",\"hedge\",\"ledge\"]}",
+                "{\"line\":5,\"error\":\"Expected required and optional letters: 'q'\"}",
+                ""), output);
+    }
+
+    @Test
+    public void solveBatch_text() throws IOException {
+        final String output = solveBatch("c abrdyz\nx y-z\n", false);
+        Assert.assertEquals(String.format("c abdryz: score 5%n"
+                        + "  - abracadabrazy (3)%n"
+                        + "  - abrac (1)%n"
+                        + "  - barca (1)%n"
+                        + "! line 2: Invalid character in 'optional': '-' (2d)%n"),
+                output);
+    }
+
+    @Test
+    public void solveBatch_invalidPuzzles_yieldErrors() throws IOException {
+        final String output = solveBatch(
+                "a bcdefghijklmnopqrstuvwxyz\nc abd\ncd abryz\nc cabdry\n", false);
+        Assert.assertEquals(String.format(
+                "! line 1: Expected 7 distinct letters, not 26: 'a bcdefghijklmnopqrstuvwxyz'%n"
+                        + "! line 2: Expected 7 distinct letters, not 4: 'c abd'%n"
+                        + "! line 3: Expected a single required letter: 'cd'%n"
+                        + "! line 4: Expected 7 distinct letters, not 6: 'c cabdry'%n"),
+                output);
+    }
+
+    @Test
+    public void solveBatch_manyChunks_preservesOrder() throws IOException {
+        final int lines = 2 * PuzzleSolver.BATCH_CHUNK_SIZE + 3;
+        final String input = IntStream.range(0, lines)
+                .mapToObj(i -> i % 2 == 0 ? "d eghlnt" : "t deghln")
+                .collect(Collectors.joining("\n"));
+        final String[] output = solveBatch(input, true).split("\n");
+        Assert.assertEquals(lines, output.length);
+        for (int i = 0; i < lines; i++) {
+            Assert.assertTrue(output[i].startsWith(String.format(
+                    "{\"line\":%s,\"required\":\"%s\"", i + 1, i % 2 == 0 ? "d" : "t")));
+        }
+    }
+
+    @Test
+    public void parseVector_alphabet_foldsCaseAndNormalizes() {
+        Assert.assertEquals(
+                Alphabet.SPANISH.vector("ñ"),
+                PuzzleSolver.parseVector(Alphabet.SPANISH, "required", "\u00d1"));
+        Assert.assertEquals(
+                Alphabet.SPANISH.vector("añ"),
+                PuzzleSolver.parseVector(Alphabet.SPANISH, "optional", "an\u0303"));
+        Assert.assertEquals(
+                Alphabet.POLISH.vector("żółw"),
+                PuzzleSolver.parseVector(Alphabet.POLISH, "optional", "ŻÓŁW"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void parseVector_alphabet_letterOutsideAlphabet_throws() {
+        PuzzleSolver.parseVector(Alphabet.SPANISH, "optional", "abcä");
+    }
+
+}
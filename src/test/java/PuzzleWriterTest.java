@@ -0,0 +1,73 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class PuzzleWriterTest {
+
+    private static PuzzleDatum createDatum(String required, String optional, int good) {
+        final int requiredVector = Puzzle.characterVector(required.toCharArray());
+        final int optionalVector = Puzzle.characterVector(optional.toCharArray());
+        return new PuzzleDatum(
+                new Puzzle(requiredVector | optionalVector, requiredVector),
+                Collections.emptyList(),
+                good, 2 * good, 3 * good);
+    }
+
+    @Test
+    public void teX_representativePage() throws IOException {
+        final StringWriter out = new StringWriter();
+        try (PuzzleWriter writer = new TeXPuzzleWriter(out)) {
+            writer.writePage(
+                    createDatum("g", "cenorv", 8),
+                    createDatum("a", "bcdefg", 12));
+        }
+        final String expected = Stream.of(
+                "\\documentclass[12pt,letterpaper]{article}\n\n",
+                "\\usepackage{spellingbee}\n\n",
+                "\\begin{document}\n\n",
+                "\\puzzle{%\n",
+                "  required={G},\n",
+                "  optional={C,E,N,O,R,V},\n",
+                "  good=8,\n",
+                "  excellent=16,\n",
+                "  genius=24\n",
+                "}\n",
+                "\\nextpuzzle\n",
+                "\\puzzle{%\n",
+                "  required={A},\n",
+                "  optional={B,C,D,E,F,G},\n",
+                "  good=12,\n",
+                "  excellent=24,\n",
+                "  genius=36\n",
+                "}\n",
+                "\\clearpage\n\n",
+                "\\end{document}\n"
+        ).collect(Collectors.joining());
+        Assert.assertEquals(expected, out.toString());
+    }
+
+    @Test
+    public void csv_roundTripsThroughCreateDataset() throws IOException {
+        final StringWriter out = new StringWriter();
+        try (PuzzleWriter writer = new CsvPuzzleWriter(out)) {
+            writer.writePage(createDatum("z", "abcdef", 0), createDatum("q", "uietnr", -7));
+            writer.writePage(createDatum("e", "dghntl", 1234567));
+        }
+        final List<PuzzleDatum> dataset = PuzzleDatum.createDataset(
+                new ByteArrayInputStream(out.toString().getBytes()),
+                puzzle -> Collections.emptyList());
+        Assert.assertEquals(3, dataset.size());
+        Assert.assertEquals(createDatum("q", "uietnr", 0).puzzle, dataset.get(1).puzzle);
+        Assert.assertEquals(0, dataset.get(0).good);
+        Assert.assertEquals(-14, dataset.get(1).excellent);
+        Assert.assertEquals(3703701, dataset.get(2).genius);
+    }
+
+}
@@ -0,0 +1,22 @@
+import org.junit.Assert;
+import org.junit.Test;
+
+public class RatingModelTest {
+
+    @Test
+    public void thresholds() {
+        final RatingModel model = new RatingModel(2, 0.5, 1, 0.25);
+        Assert.assertEquals(7, model.good(10));
+        Assert.assertEquals(4, model.perLevelDelta(10));
+        Assert.assertEquals(11, model.excellent(10));
+        Assert.assertEquals(15, model.genius(10));
+    }
+
+    @Test
+    public void toString_showsCoefficients() {
+        Assert.assertEquals(
+                "RatingModel{good=0.5*x + 2.0, delta=-0.25*x + 1.0}",
+                new RatingModel(2, 0.5, 1, -0.25).toString());
+    }
+
+}